@@ -0,0 +1,222 @@
+package Model;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Batch evaluation in SIMD lanes with the incubating Vector API, one
+ * position per lane. It needs {@code --add-modules jdk.incubator.vector} to
+ * compile and to run and is therefore kept apart from the other sources;
+ * {@link Evaluator} loads it if it is on the class path.
+ *
+ * The group counts are population counts of the same line masks as in
+ * {@link Evaluator#evaluate(long, long, EvaluationWeights)}. The Vector API
+ * has no lane-wise population count yet, so it is computed by halving
+ * steps: the byte counts of the four directions are added before they are
+ * summed up once. The weighted column sum is split into bit planes of the
+ * column weights, one population count per plane instead of one per
+ * column.
+ */
+final class VectorEvaluator implements BatchEvaluator {
+
+    private static final VectorSpecies<Long> SPECIES
+            = LongVector.SPECIES_PREFERRED;
+    private static final long ODD_BITS = 0x5555555555555555L;
+    private static final long BIT_PAIRS = 0x3333333333333333L;
+    private static final long NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+    private static final long BYTE_ONES = 0x0101010101010101L;
+
+    /**
+     * Weights prepared for the lanes, replaced when other weights come.
+     */
+    private volatile Plan plan = new Plan(EvaluationWeights.DEFAULT);
+
+    /**
+     * Creates the evaluation, called by {@link Evaluator}.
+     */
+    VectorEvaluator() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void evaluate(long[] machine, long[] human, int count,
+                         EvaluationWeights weights, int[] values) {
+        Plan p = plan;
+        if (p.weights != weights) {
+            p = new Plan(weights);
+            plan = p;
+        }
+
+        int lanes = SPECIES.length();
+        long[] lane = new long[lanes];
+        int i = 0;
+
+        for (; i < count && i + lanes <= machine.length
+                && i + lanes <= human.length; i += lanes) {
+            LongVector value = evaluate(
+                    LongVector.fromArray(SPECIES, machine, i),
+                    LongVector.fromArray(SPECIES, human, i), p);
+            value.intoArray(lane, 0);
+
+            for (int j = 0; j < lanes && i + j < count; j++) {
+                values[i + j] = (int) lane[j];
+            }
+        }
+        for (; i < count; i++) {
+            values[i] = Evaluator.evaluate(machine[i], human[i], weights);
+        }
+    }
+
+    /**
+     * Evaluates one position per lane.
+     *
+     * @param machine Bitboards of the machine's checkers.
+     * @param human Bitboards of the human's checkers.
+     * @param p Prepared weights.
+     * @return Static board values.
+     */
+    private static LongVector evaluate(LongVector machine, LongVector human,
+                                       Plan p) {
+        LongVector value = LongVector.broadcast(SPECIES, p.constant)
+                .add(groups(machine, p.machine))
+                .sub(groups(human, p.human));
+
+        for (int k = 0; k < p.planes.length; k++) {
+            long plane = p.planes[k];
+            value = value.add(bitCount(machine.and(plane))
+                    .sub(bitCount(human.and(plane))).lanewise(
+                    VectorOperators.LSHL, k));
+        }
+        return value.add(bitCount(machine).sub(bitCount(human))
+                .mul(p.columnOffset));
+    }
+
+    /**
+     * Calculates the weighted group counts of one side.
+     *
+     * @param board Bitboards of one side.
+     * @param weights Weights of at least two, three and four in a line.
+     * @return Weighted sum of the groups.
+     */
+    private static LongVector groups(LongVector board, long[] weights) {
+        LongVector twos = LongVector.zero(SPECIES);
+        LongVector threes = twos;
+        LongVector fours = twos;
+
+        for (int direction : Position.DIRECTIONS) {
+            LongVector two = board.lanewise(VectorOperators.AND_NOT,
+                    board.lanewise(VectorOperators.LSHL, direction))
+                    .and(board.lanewise(VectorOperators.LSHR, direction));
+            LongVector three = two.and(board.lanewise(VectorOperators.LSHR,
+                    2 * direction));
+            LongVector four = three.and(board.lanewise(VectorOperators.LSHR,
+                    3 * direction));
+
+            twos = twos.add(byteCounts(two));
+            threes = threes.add(byteCounts(three));
+            fours = fours.add(byteCounts(four));
+        }
+        return sumBytes(twos).mul(weights[0])
+                .add(sumBytes(threes).mul(weights[1]))
+                .add(sumBytes(fours).mul(weights[2]));
+    }
+
+    /**
+     * Counts the set bits of every lane.
+     *
+     * @param x Bitboards.
+     * @return Population counts.
+     */
+    private static LongVector bitCount(LongVector x) {
+        return sumBytes(byteCounts(x));
+    }
+
+    /**
+     * Counts the set bits of every byte.
+     *
+     * @param x Bitboards.
+     * @return Population count of each byte in that byte.
+     */
+    private static LongVector byteCounts(LongVector x) {
+        x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(ODD_BITS));
+        x = x.and(BIT_PAIRS).add(x.lanewise(VectorOperators.LSHR, 2)
+                .and(BIT_PAIRS));
+        return x.add(x.lanewise(VectorOperators.LSHR, 4)).and(NIBBLES);
+    }
+
+    /**
+     * Adds up the bytes of every lane. The sum must be below 256.
+     *
+     * @param x Byte counts.
+     * @return Sum of the bytes.
+     */
+    private static LongVector sumBytes(LongVector x) {
+        return x.mul(BYTE_ONES).lanewise(VectorOperators.LSHR, 56);
+    }
+
+    /**
+     * Weights in the form the lanes need them.
+     */
+    private static final class Plan {
+
+        private final EvaluationWeights weights;
+        private final long constant;
+        private final long[] machine;
+        private final long[] human;
+        private final long columnOffset;
+        private final long[] planes;
+
+        /**
+         * Prepares weights.
+         *
+         * @param weights Weights of the evaluation.
+         */
+        Plan(EvaluationWeights weights) {
+            this.weights = weights;
+            constant = weights.get(EvaluationWeights.CONSTANT);
+
+            // Lines of three and four are also counted as lines of two and
+            // three, so their weights are the differences.
+            machine = differences(weights.get(EvaluationWeights.MACHINE_TWO),
+                    weights.get(EvaluationWeights.MACHINE_THREE),
+                    weights.get(EvaluationWeights.MACHINE_FOUR));
+            human = differences(weights.get(EvaluationWeights.HUMAN_TWO),
+                    weights.get(EvaluationWeights.HUMAN_THREE),
+                    weights.get(EvaluationWeights.HUMAN_FOUR));
+
+            // Every column weight is the smallest one plus a sum of powers
+            // of two, each power has a mask of the columns that contain it.
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int col = 0; col < Board.COLS; col++) {
+                min = Math.min(min, weights.getColumnWeight(col));
+                max = Math.max(max, weights.getColumnWeight(col));
+            }
+            columnOffset = min;
+            planes = new long[32 - Integer.numberOfLeadingZeros(max - min)];
+
+            for (int k = 0; k < planes.length; k++) {
+                for (int col = 0; col < Board.COLS; col++) {
+                    if ((weights.getColumnWeight(col) - min >>> k & 1) != 0) {
+                        planes[k] |= Position.columnMask(col);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Converts group weights to weights of lines of at least a length.
+         *
+         * @param two Weight of a group of two.
+         * @param three Weight of a group of three.
+         * @param four Weight of a group of four.
+         * @return Weights of at least two, three and four in a line.
+         */
+        private static long[] differences(int two, int three, int four) {
+            return new long[] {two, (long) three - two, (long) four - three};
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package Engine;
+
+import Model.ConnectFour;
+import Model.IllegalMoveException;
+import Model.MoveStrategies;
+import Model.MoveStrategy;
+import Model.SearchControl;
+import Model.TranspositionTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analyzes a file of positions on several threads without a user interface.
+ * Every line of the input holds the move string of one position as its first
+ * field, {@code -} for the empty board; the rest of the line, lines starting
+ * with {@code #} and blank lines are ignored. The machine plays the side to
+ * move of each position.
+ *
+ * For every position one line is written, in the order of the input:
+ *
+ * <pre>
+ * MOVES COLUMN SCORE DEPTH NODES
+ * MOVES error MESSAGE
+ * </pre>
+ *
+ * The input is read in batches of positions that the workers analyze while
+ * the next ones are read. Only a few batches per worker are in memory at a
+ * time, so files of any size can be analyzed. Each worker keeps its
+ * transposition table from one position to the next, which saves clearing
+ * it. With the alpha-beta strategies a stored value depends on its board
+ * alone, so column, score and depth are the same for any number of workers
+ * and any order of the positions; only the number of nodes depends on the
+ * positions a worker analyzed before. The playouts of {@code montecarlo}
+ * are random, so its results can differ from run to run. Progress and the
+ * throughput in positions per second go to standard error.
+ */
+public final class BatchAnalyzer {
+
+    private static final int BATCH_SIZE = 256;
+    private static final int BATCHES_PER_WORKER = 2;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final long TABLE_BYTES = 16L << 20;
+    private static final long REPORT_NANOS = 10_000_000_000L;
+
+    private final int level;
+    private final MoveStrategy strategy;
+    private final ThreadLocal<TranspositionTable> tables
+            = ThreadLocal.withInitial(() -> new TranspositionTable(
+                    TABLE_BYTES));
+    private final LongAdder nodes = new LongAdder();
+
+    /**
+     * Creates an analyzer.
+     *
+     * @param level Level of the machine.
+     * @param strategy Move strategy of the machine.
+     */
+    private BatchAnalyzer(int level, MoveStrategy strategy) {
+        this.level = level;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Analyzes a position file.
+     *
+     * @param args Input file, output file ({@code -} for standard output),
+     *             level, number of workers and name of the move strategy.
+     *             All but the input file are optional.
+     * @throws IOException Reading or writing failed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: BatchAnalyzer INPUT [OUTPUT [LEVEL"
+                    + " [WORKERS [STRATEGY]]]]");
+            System.exit(2);
+        }
+
+        Path input = Paths.get(args[0]);
+        String output = args.length > 1 ? args[1] : "-";
+        int level = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int workers = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+        MoveStrategy strategy = args.length > 4
+                ? MoveStrategies.get(args[4]) : MoveStrategies.getDefault();
+
+        try (LineReader in = new LineReader(input);
+             WritableByteChannel out = output.equals("-")
+                     ? Channels.newChannel(System.out)
+                     : FileChannel.open(Paths.get(output),
+                             StandardOpenOption.CREATE,
+                             StandardOpenOption.TRUNCATE_EXISTING,
+                             StandardOpenOption.WRITE)) {
+            new BatchAnalyzer(level, strategy).run(in, out, workers);
+        }
+    }
+
+    /**
+     * Reads all positions, analyzes them on the workers and writes the
+     * results in input order.
+     *
+     * @param in The positions.
+     * @param out Receives the results.
+     * @param workers Number of worker threads.
+     * @throws IOException Reading or writing failed.
+     */
+    private void run(LineReader in, WritableByteChannel out, int workers)
+            throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        Deque<Integer> sizes = new ArrayDeque<>();
+        long start = System.nanoTime();
+        long lastReport = start;
+        long positions = 0;
+
+        try {
+            List<String> batch = readBatch(in);
+
+            while (!batch.isEmpty() || !pending.isEmpty()) {
+                if (!batch.isEmpty()) {
+                    List<String> moves = batch;
+                    pending.add(pool.submit(() -> analyze(moves)));
+                    sizes.add(moves.size());
+                    batch = readBatch(in);
+                }
+
+                // Wait for the oldest batch when enough are in flight or the
+                // input is read completely.
+                if (pending.size() >= BATCHES_PER_WORKER * workers
+                        || batch.isEmpty()) {
+                    write(out, await(pending.remove()));
+                    positions += sizes.remove();
+
+                    long now = System.nanoTime();
+                    if (now - lastReport >= REPORT_NANOS) {
+                        report("analyzing", positions, now - start);
+                        lastReport = now;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        report("analyzed", positions, System.nanoTime() - start);
+    }
+
+    /**
+     * Reads the next batch of move strings.
+     *
+     * @param in The positions.
+     * @return Up to {@link #BATCH_SIZE} move strings, none at the end.
+     * @throws IOException Reading failed.
+     */
+    private static List<String> readBatch(LineReader in) throws IOException {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        String line;
+
+        while (batch.size() < BATCH_SIZE && (line = in.readLine()) != null) {
+            int end = 0;
+            while (end < line.length()
+                    && !Character.isWhitespace(line.charAt(end))) {
+                end++;
+            }
+            if (end > 0 && line.charAt(0) != '#') {
+                batch.add(line.substring(0, end));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Lets the machine move in every position of a batch.
+     *
+     * @param batch Move strings of the positions.
+     * @return Result lines of the positions.
+     */
+    private byte[] analyze(List<String> batch) {
+        TranspositionTable table = tables.get();
+        StringBuilder b = new StringBuilder(batch.size() * 48);
+
+        for (String moves : batch) {
+            b.append(moves);
+
+            try {
+                ConnectFour game = ConnectFour.fromMoves(moves.equals("-")
+                        ? "" : moves);
+                SearchControl control = new SearchControl();
+
+                game.setTranspositionTable(table);
+                game.setMoveStrategy(strategy);
+                game.setMachineThreads(1);
+                game.setLevel(level);
+                game.machineMove(control);
+                nodes.add(control.getNodes());
+
+                b.append(' ').append(control.getBestColumn())
+                        .append(' ').append(control.getScore())
+                        .append(' ').append(control.getDepth())
+                        .append(' ').append(control.getNodes());
+            } catch (IllegalArgumentException | IllegalMoveException ex) {
+                b.append(" error ").append(ex.getMessage() == null
+                        ? "game over" : ex.getMessage());
+            }
+            b.append('\n');
+        }
+        return b.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Waits for the results of a batch.
+     *
+     * @param result Future of the batch.
+     * @return Result lines of the batch.
+     */
+    private static byte[] await(Future<byte[]> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Analysis failed",
+                    ex.getCause());
+        }
+    }
+
+    /**
+     * Writes bytes completely.
+     *
+     * @param out The channel.
+     * @param bytes Bytes to write.
+     * @throws IOException Writing failed.
+     */
+    private static void write(WritableByteChannel out, byte[] bytes)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Prints the number of positions and the throughput to standard error.
+     *
+     * @param what Word for the state of the analysis.
+     * @param positions Number of analyzed positions.
+     * @param nanos Time since the start.
+     */
+    private void report(String what, long positions, long nanos) {
+        double seconds = Math.max(nanos, 1) / 1e9;
+        System.err.printf("%s %d positions in %.1f s, %.0f positions/s,"
+                + " %.0f nodes/s%n", what, positions, seconds,
+                positions / seconds, nodes.sum() / seconds);
+    }
+
+    /**
+     * Reads the lines of a file through a channel and a direct buffer. Lines
+     * longer than the buffer are cut, which no valid move string is.
+     */
+    private static final class LineReader implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(
+                BUFFER_BYTES);
+        private final byte[] line = new byte[BUFFER_BYTES];
+        private boolean end = false;
+
+        /**
+         * Opens a file.
+         *
+         * @param file The file.
+         * @throws IOException Opening failed.
+         */
+        LineReader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.flip();
+        }
+
+        /**
+         * Reads the next line.
+         *
+         * @return The line without its end or null at the end of the file.
+         * @throws IOException Reading failed.
+         */
+        String readLine() throws IOException {
+            int length = 0;
+            boolean read = false;
+
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    if (end || !fill()) {
+                        end = true;
+                        return read ? decode(length) : null;
+                    }
+                }
+                byte b = buffer.get();
+                read = true;
+
+                if (b == '\n') {
+                    return decode(length);
+                }
+                if (length < line.length) {
+                    line[length++] = b;
+                }
+            }
+        }
+
+        /**
+         * Reads more of the file into the empty buffer.
+         *
+         * @return False at the end of the file.
+         * @throws IOException Reading failed.
+         */
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int count = channel.read(buffer);
+            buffer.flip();
+            return count >= 0;
+        }
+
+        /**
+         * Decodes a line, without a carriage return at its end.
+         *
+         * @param length Number of bytes in the line.
+         * @return The line.
+         */
+        private String decode(int length) {
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,622 @@
+package Engine;
+
+import Model.Board;
+import Model.ConnectFour;
+import Model.EvaluationWeights;
+import Model.GameJournal;
+import Model.GameRecord;
+import Model.IllegalMoveException;
+import Model.Player;
+import Model.SearchControl;
+import Model.TranspositionTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games at once. Machine moves of all sessions are searched on a
+ * fixed pool of threads and share one off-heap transposition table, so
+ * positions that occur in several games are only calculated once.
+ *
+ * The table can be saved to a snapshot file regularly and restored from it
+ * after a restart, so the service does not start with an empty table.
+ * Finished games can be recorded in a {@link GameJournal}.
+ */
+public final class EngineService implements AutoCloseable {
+
+    private static final long SNAPSHOT_INTERVAL = 60;
+    private static final int SNAPSHOT_DEPTH = 2;
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final TranspositionTable table;
+    private final ExecutorService searchers;
+    private volatile long nodeBudget = Long.MAX_VALUE;
+    private volatile long memoryBudget = Long.MAX_VALUE;
+    private volatile GameJournal journal;
+    private ScheduledExecutorService snapshots;
+    private Path snapshotFile;
+    private int snapshotDepth;
+
+    /**
+     * Creates a service.
+     *
+     * @param tableBytes Size of the shared transposition table in bytes.
+     * @param threads Number of threads searching machine moves.
+     */
+    public EngineService(long tableBytes, int threads) {
+        table = new TranspositionTable(tableBytes);
+        searchers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "engine-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Limits every machine search of the service. A search that runs out of
+     * nodes plays the move of the last depth it finished, a search that
+     * runs out of memory does not look deeper.
+     *
+     * @param nodeBudget Maximum number of boards per search.
+     * @param memoryBudget Maximum number of heap bytes per search.
+     * @throws IllegalArgumentException A budget is not positive.
+     */
+    public void setSearchBudget(long nodeBudget, long memoryBudget) {
+        if (nodeBudget < 1 || memoryBudget < 1) {
+            throw new IllegalArgumentException("Invalid search budget: "
+                    + nodeBudget + " nodes, " + memoryBudget + " bytes");
+        }
+        this.nodeBudget = nodeBudget;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Records every game that ends from now on in a journal. The journal is
+     * not closed by the service.
+     *
+     * @param journal The journal or null to stop recording.
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Restores the table from a snapshot file and saves it there regularly.
+     * Restoring runs in the background, so sessions can search meanwhile. A
+     * snapshot of other evaluation weights is ignored. On {@link #close()}
+     * a last snapshot is saved.
+     *
+     * @param file Snapshot file, need not exist yet.
+     * @param intervalSeconds Seconds between two snapshots.
+     * @param minDepth Smallest depth of saved entries.
+     * @return Completes with the number of restored entries.
+     * @throws IllegalStateException Snapshots were already started.
+     */
+    public synchronized CompletableFuture<Long> startSnapshots(Path file,
+            long intervalSeconds, int minDepth) {
+        if (snapshots != null) {
+            throw new IllegalStateException("Snapshots already started");
+        }
+        snapshotFile = file;
+        snapshotDepth = minDepth;
+        snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "engine-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<Long> restored = CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return Files.exists(file) ? table.load(file,
+                                EvaluationWeights.DEFAULT) : 0L;
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }, snapshots);
+        snapshots.scheduleWithFixedDelay(this::saveSnapshot, intervalSeconds,
+                intervalSeconds, TimeUnit.SECONDS);
+        return restored;
+    }
+
+    /**
+     * Saves a snapshot of the table. A failure is reported and the next
+     * snapshot is tried as planned.
+     */
+    private void saveSnapshot() {
+        try {
+            table.save(snapshotFile, EvaluationWeights.DEFAULT,
+                    snapshotDepth);
+        } catch (IOException ex) {
+            System.err.println("Saving table snapshot failed: "
+                    + ex.getMessage());
+        }
+    }
+
+    /**
+     * Creates a new game session.
+     *
+     * @param machineFirst If true, the machine makes the first move, which
+     *                     has to be requested with {@link #machineMove(long)}.
+     * @param level Skill level of the machine.
+     * @return Id of the new session.
+     */
+    public long createSession(boolean machineFirst, int level) {
+        ConnectFour game = new ConnectFour(machineFirst);
+        game.setLevel(level);
+        game.setTranspositionTable(table);
+
+        // The sessions keep the search threads busy, a strategy with threads
+        // of its own would multiply them.
+        game.setMachineThreads(1);
+
+        long id = nextId.getAndIncrement();
+        sessions.put(id, new Session(game, machineFirst, level));
+        return id;
+    }
+
+    /**
+     * Gets the current board of a session.
+     *
+     * @param id Id of the session.
+     * @return The current board.
+     * @throws IllegalArgumentException There is no session with this id.
+     */
+    public Board getBoard(long id) {
+        return getSession(id).getBoard();
+    }
+
+    /**
+     * Executes a human move in a session.
+     *
+     * @param id Id of the session.
+     * @param col Column from 1 to {@link Board#COLS}.
+     * @return The board after the move.
+     * @throws IllegalArgumentException There is no session with this id or
+     *         the column is invalid.
+     * @throws IllegalMoveException The column is full, the game is over or it
+     *         is not the human's turn.
+     */
+    public Board move(long id, int col) {
+        Session session = getSession(id);
+        Board board = session.move(col);
+        record(session);
+        return board;
+    }
+
+    /**
+     * Searches and executes the machine move of a session on the search
+     * threads.
+     *
+     * @param id Id of the session.
+     * @return The board after the machine move or {@code null} if the
+     *         session was closed before the search finished, completed
+     *         exceptionally with {@link IllegalMoveException} if the game is
+     *         already over or it is not the machine's turn.
+     * @throws IllegalArgumentException There is no session with this id.
+     */
+    public CompletableFuture<Board> machineMove(long id) {
+        Session session = getSession(id);
+        SearchControl control;
+
+        try {
+            control = session.startMachineMove(nodeBudget, memoryBudget);
+        } catch (IllegalMoveException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            Board board = session.machineMove(control);
+            record(session);
+            return board;
+        }, searchers);
+    }
+
+    /**
+     * Appends the game of a session to the journal once it is over.
+     *
+     * @param session The session.
+     */
+    private void record(Session session) {
+        GameJournal target = journal;
+
+        if (target != null && session.finish()) {
+            target.append(System.currentTimeMillis(), session.level,
+                    session.machineFirst, session.getResult(),
+                    session.moves);
+        }
+    }
+
+    /**
+     * Gets the statistics of a session.
+     *
+     * @param id Id of the session.
+     * @return Snapshot of the statistics.
+     * @throws IllegalArgumentException There is no session with this id.
+     */
+    public SessionStats getStats(long id) {
+        return getSession(id).getStats();
+    }
+
+    /**
+     * Closes a session. A queued or running search of the session is
+     * stopped. Unknown ids are ignored.
+     *
+     * @param id Id of the session.
+     */
+    public void closeSession(long id) {
+        Session session = sessions.remove(id);
+
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    /**
+     * Gets the number of open sessions.
+     *
+     * @return Number of sessions.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops the search threads. Running and queued searches are finished
+     * first, so that they are recorded in the journal and the last snapshot
+     * is saved after them. If snapshots were started, a last one is saved.
+     */
+    @Override
+    public synchronized void close() {
+        searchers.shutdown();
+        try {
+            // Searches are not interrupted, they end by their budgets.
+            searchers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            // Give up waiting, the snapshot is still saved.
+            Thread.currentThread().interrupt();
+        }
+
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+            saveSnapshot();
+        }
+    }
+
+    /**
+     * Gets a session by its id.
+     *
+     * @param id Id of the session.
+     * @return The session.
+     * @throws IllegalArgumentException There is no session with this id.
+     */
+    private Session getSession(long id) {
+        Session session = sessions.get(id);
+
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown session: " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Plays random human moves against the machine in many sessions at once
+     * and prints the throughput.
+     *
+     * @param args Number of sessions, search threads, table size in MB,
+     *             level, node budget per search, snapshot file ({@code -}
+     *             for none) and journal directory. All optional.
+     * @throws IOException Opening or writing the journal failed.
+     */
+    public static void main(String[] args) throws IOException {
+        int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        long tableMb = args.length > 2 ? Long.parseLong(args[2]) : 256;
+        int level = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long nodeBudget = args.length > 4 ? Long.parseLong(args[4])
+                : Long.MAX_VALUE;
+        GameJournal journal = args.length > 6
+                ? new GameJournal(Paths.get(args[6])) : null;
+
+        try (EngineService service = new EngineService(tableMb << 20,
+                threads)) {
+            service.setSearchBudget(nodeBudget, Long.MAX_VALUE);
+            service.setJournal(journal);
+
+            if (args.length > 5 && !args[5].equals("-")) {
+                service.startSnapshots(Paths.get(args[5]), SNAPSHOT_INTERVAL,
+                        SNAPSHOT_DEPTH).thenAccept(restored -> System.out
+                        .printf("restored %d table entries%n", restored));
+            }
+            List<CompletableFuture<Void>> games = new ArrayList<>();
+            long start = System.nanoTime();
+
+            for (int i = 0; i < sessionCount; i++) {
+                long id = service.createSession(i % 2 == 0, level);
+                Random random = new Random(i);
+                CompletableFuture<Board> first = i % 2 == 0
+                        ? service.machineMove(id)
+                        : CompletableFuture.completedFuture(
+                                service.getBoard(id));
+                games.add(first.thenCompose(board -> service.playRandom(id,
+                        random)));
+            }
+            CompletableFuture.allOf(games.toArray(new CompletableFuture<?>[0]))
+                    .join();
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long moves = 0;
+            long nodes = 0;
+            long peakBytes = 0;
+
+            for (long id : service.sessions.keySet()) {
+                SessionStats stats = service.getStats(id);
+                moves += stats.getMachineMoves();
+                nodes += stats.getNodes();
+                peakBytes = Math.max(peakBytes, stats.getPeakBytes());
+            }
+            System.out.printf("%d sessions, %d threads: %.0f moves/s,"
+                    + " %.0f nodes/s, peak %d bytes per search%n",
+                    sessionCount, threads, moves / seconds, nodes / seconds,
+                    peakBytes);
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    /**
+     * Continues a session with random human moves until the game is over.
+     *
+     * @param id Id of the session.
+     * @param random Source of the human moves.
+     * @return Completes when the game is over.
+     */
+    private CompletableFuture<Void> playRandom(long id, Random random) {
+        Board board = getBoard(id);
+
+        if (board.isGameOver()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Board humanMove = null;
+        while (humanMove == null) {
+            try {
+                humanMove = move(id, random.nextInt(Board.COLS) + 1);
+            } catch (IllegalMoveException ex) {
+                // Column is full, try another one.
+            }
+        }
+
+        if (humanMove.isGameOver()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return machineMove(id).thenCompose(b -> playRandom(id, random));
+    }
+
+    /**
+     * A single game together with its statistics.
+     */
+    private static final class Session {
+
+        private final boolean machineFirst;
+        private final int level;
+        private final StringBuilder moves = new StringBuilder();
+        private Board board;
+        private SearchControl search = null;
+        private boolean closed = false;
+        private boolean finished = false;
+        private int machineMoves = 0;
+        private long nodes = 0;
+        private long tableHits = 0;
+        private long searchNanos = 0;
+        private long peakBytes = 0;
+
+        /**
+         * Creates a session for a new game.
+         *
+         * @param board The initial board.
+         * @param machineFirst True if the machine moves first.
+         * @param level Level of the machine.
+         */
+        Session(Board board, boolean machineFirst, int level) {
+            this.board = board;
+            this.machineFirst = machineFirst;
+            this.level = level;
+        }
+
+        /**
+         * Gets the current board.
+         *
+         * @return The current board.
+         */
+        synchronized Board getBoard() {
+            return board;
+        }
+
+        /**
+         * Executes a human move.
+         *
+         * @param col Column from 1 to {@link Board#COLS}.
+         * @return The board after the move.
+         */
+        synchronized Board move(int col) {
+            if (search != null || isMachineTurn()) {
+                throw new IllegalMoveException("It is the machine's turn");
+            }
+            Board next = board.move(col);
+
+            if (next == null) {
+                throw new IllegalMoveException("Column " + col + " is full");
+            }
+            board = next;
+            moves.append(col);
+            return next;
+        }
+
+        /**
+         * Tells whether the machine moves next, by the number of moves.
+         *
+         * @return True if it is the machine's turn.
+         */
+        private boolean isMachineTurn() {
+            return moves.length() % 2 == (machineFirst ? 0 : 1);
+        }
+
+        /**
+         * Checks that the machine may move and creates the control of its
+         * search. Until the search ends, no other move is accepted.
+         *
+         * @param nodeBudget Maximum number of boards of the search.
+         * @param memoryBudget Maximum number of heap bytes of the search.
+         * @return Control of the search.
+         * @throws IllegalMoveException The game is over, it is not the
+         *         machine's turn or the machine is already searching.
+         */
+        synchronized SearchControl startMachineMove(long nodeBudget,
+                                                    long memoryBudget) {
+            if (board.isGameOver()) {
+                throw new IllegalMoveException("The game is over");
+            }
+            if (search != null || !isMachineTurn()) {
+                throw new IllegalMoveException("It is not the machine's turn");
+            }
+
+            search = new SearchControl();
+            search.setNodeBudget(nodeBudget);
+            search.setMemoryBudget(memoryBudget);
+            return search;
+        }
+
+        /**
+         * Searches and executes the machine move. The session is only locked
+         * before and after the search, so that its board and statistics can
+         * be read meanwhile.
+         *
+         * @param control Control from {@link #startMachineMove}.
+         * @return The board after the move or {@code null} if the session
+         *         was closed before the search finished.
+         */
+        Board machineMove(SearchControl control) {
+            Board before;
+            synchronized (this) {
+                before = board;
+            }
+
+            long start = System.nanoTime();
+            Board after = null;
+            try {
+                if (!control.isStopped()) {
+                    after = ((ConnectFour) before).machineMove(control);
+                }
+            } finally {
+                synchronized (this) {
+                    search = null;
+                    if (closed) {
+                        // The move of a closed session is dropped.
+                        after = null;
+                    }
+                    if (after != null) {
+                        board = after;
+                        moves.append(playedColumn(before, after));
+                        searchNanos += System.nanoTime() - start;
+                        nodes += control.getNodes();
+                        tableHits += control.getTableHits();
+                        peakBytes = Math.max(peakBytes,
+                                control.getPeakBytes());
+                        machineMoves++;
+                    }
+                }
+            }
+            return after;
+        }
+
+        /**
+         * Stops a queued or running search of the session.
+         */
+        synchronized void close() {
+            closed = true;
+            if (search != null) {
+                search.stop();
+            }
+        }
+
+        /**
+         * Finds the column of the move between two boards. The search result
+         * is not used, since it has no column when the search was stopped.
+         *
+         * @param before The board before the move.
+         * @param after The board after the move.
+         * @return Column from 1 to {@link Board#COLS}, 0 if no tile was
+         *         added.
+         */
+        private static int playedColumn(Board before, Board after) {
+            for (int col = 1; col <= Board.COLS; col++) {
+                for (int row = 1; row <= Board.ROWS; row++) {
+                    if (before.getSlot(row, col) == null
+                            && after.getSlot(row, col) != null) {
+                        return col;
+                    }
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Marks the game as recorded if it is over.
+         *
+         * @return True if the game is over and was not marked before.
+         */
+        synchronized boolean finish() {
+            if (closed || finished || !board.isGameOver()) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+
+        /**
+         * Gets the result of the game.
+         *
+         * @return Result as defined in {@link GameRecord}.
+         */
+        synchronized int getResult() {
+            Player winner = board.getWinner();
+
+            if (!board.isGameOver()) {
+                return GameRecord.UNFINISHED;
+            }
+            if (winner == null) {
+                return GameRecord.DRAW;
+            }
+            return winner.isMachine() == machineFirst ? GameRecord.FIRST_WON
+                    : GameRecord.SECOND_WON;
+        }
+
+        /**
+         * Gets a snapshot of the statistics.
+         *
+         * @return The statistics.
+         */
+        synchronized SessionStats getStats() {
+            return new SessionStats(machineMoves, nodes, tableHits,
+                    searchNanos, peakBytes);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package Engine;
+
+import Model.ConnectFour;
+import Model.MoveStrategies;
+import Model.MoveStrategy;
+import Model.SearchControl;
+import Model.TranspositionTable;
+
+/**
+ * Measures how long the machine needs for one move on every level. Each
+ * reference position is a midgame after twelve random moves and is searched
+ * with an empty table of 64 MiB. The strategy can be chosen by name.
+ *
+ * Measured on a single core, average and maximum over the positions:
+ *
+ * <pre>
+ * level   avg ms   max ms       nodes
+ *     1       29      285           7
+ *     2        1        2          48
+ *     3        1        5         154
+ *     4        1        4         458
+ *     5        2        6        1089
+ *     6        2        6        2500
+ *     7        6       26        6367
+ *     8        4       14       11871
+ *     9        5       14       23997
+ *    10       11       33       38437
+ *    11       20       66       82830
+ *    12       40      106      128504
+ *    13       52      144      214189
+ *    14      103      219      345414
+ *    15      186      443      651935
+ *    16      236      568      897972
+ *    17      513     1694     1870292
+ *    18      857     2835     2696694
+ *    19     1211     3090     4442245
+ *    20     1627     3932     5857624
+ * </pre>
+ *
+ * Average nodes of the alpha-beta variants:
+ *
+ * <pre>
+ * level     minimax         pvs        mtdf
+ *    14      345414      294060      303702
+ *    17     1870292     1551347     1628640
+ *    20     5857624     4864564     5066248
+ * </pre>
+ *
+ * Forcing lines are extended beyond the level, so a level searches about
+ * as many nodes as two levels more did without extensions, and level 20
+ * takes about three times as long as without them. This pays off in play:
+ * in 120 games from random openings, level 8 with extensions scored 71
+ * against level 9 without them at a similar number of nodes, and 57.5
+ * against level 10 with 30% fewer nodes. Starting the JVM with
+ * {@code -Dconnectfour.extensions=0} restores the old cost per level.
+ */
+public final class LevelBenchmark {
+
+    private static final String[] POSITIONS = {"267465247445",
+        "112416136223", "131456673445", "661776114173", "746132311124",
+        "165323757642", "271443553164", "573615123562", "643762357114",
+        "727467554736"};
+    private static final long TABLE_BYTES = 64L << 20;
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private LevelBenchmark() {
+    }
+
+    /**
+     * Prints the latency of every level.
+     *
+     * @param args Lowest and highest level and name of the move strategy.
+     *             All optional.
+     */
+    public static void main(String[] args) {
+        int lowest = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int highest = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        MoveStrategy strategy = args.length > 2
+                ? MoveStrategies.get(args[2]) : MoveStrategies.getDefault();
+        TranspositionTable table = new TranspositionTable(TABLE_BYTES);
+
+        System.out.println("level   avg ms   max ms       nodes");
+
+        for (int level = lowest; level <= highest; level++) {
+            long total = 0;
+            long max = 0;
+            long nodes = 0;
+
+            for (String moves : POSITIONS) {
+                ConnectFour game = ConnectFour.fromMoves(moves);
+                SearchControl control = new SearchControl();
+
+                table.clear();
+                game.setTranspositionTable(table);
+                game.setMoveStrategy(strategy);
+                game.setLevel(level);
+
+                long start = System.nanoTime();
+                game.machineMove(control);
+                long time = System.nanoTime() - start;
+
+                total += time;
+                max = Math.max(max, time);
+                nodes += control.getNodes();
+            }
+            System.out.printf("%5d %8d %8d %11d%n", level,
+                    total / POSITIONS.length / 1_000_000, max / 1_000_000,
+                    nodes / POSITIONS.length);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package Engine;
+
+import Model.Board;
+import Model.ConnectFour;
+import Model.SearchControl;
+import Model.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the machine on a suite of positions with known best moves and
+ * reports for every position whether it was solved, and after how many
+ * nodes and how much time. The machine searches with increasing depth; a
+ * position counts as solved at the first depth from which on the chosen
+ * column is always one of the best moves. The suite is run once before the
+ * measured run, so that the search is compiled when it is timed.
+ *
+ * Suite files have one position per line: the move string, the best
+ * columns separated by commas and an optional comment after {@code #}. The
+ * results can be saved as baseline and later runs compared with it. A run
+ * fails if a position is no longer solved, if its nodes to solution grew by
+ * more than the threshold factor, or if the time to solution of the whole
+ * suite did. Single times are too short to compare, the nodes are the same
+ * in every run.
+ */
+public final class PositionSuite {
+
+    private static final String DEFAULT_SUITE = "positions.txt";
+    private static final long TABLE_BYTES = 64L << 20;
+
+    private final TranspositionTable table
+            = new TranspositionTable(TABLE_BYTES);
+
+    /**
+     * Creates a runner.
+     */
+    private PositionSuite() {
+    }
+
+    /**
+     * Runs a suite, prints the results and compares them with the baseline.
+     * If the baseline file does not exist yet, the results are saved as
+     * baseline. Exits with status 1 on a regression.
+     *
+     * @param args Suite file ({@code -} for the built-in suite), limit as
+     *             {@code depth=N} or {@code time=MS}, baseline file and
+     *             threshold factor. All optional.
+     * @throws IOException Reading the suite or the baseline failed.
+     */
+    public static void main(String[] args) throws IOException {
+        String suite = args.length > 0 ? args[0] : "-";
+        String limit = args.length > 1 ? args[1] : "depth=12";
+        Path baseline = args.length > 2 ? Paths.get(args[2]) : null;
+        double threshold = args.length > 3 ? Double.parseDouble(args[3])
+                : 1.5;
+
+        int maxDepth = Board.ROWS * Board.COLS;
+        long timeMillis = 0;
+        if (limit.startsWith("depth=")) {
+            maxDepth = Integer.parseInt(limit.substring(6));
+        } else if (limit.startsWith("time=")) {
+            timeMillis = Long.parseLong(limit.substring(5));
+        } else {
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+
+        List<Entry> entries = readSuite(suite);
+        PositionSuite runner = new PositionSuite();
+        List<Result> results = new ArrayList<>();
+        int solved = 0;
+
+        for (Entry entry : entries) {
+            runner.solve(entry, maxDepth, timeMillis);
+        }
+
+        System.out.println("moves                    best    depth"
+                + "      nodes    time us  result");
+
+        for (Entry entry : entries) {
+            Result result = runner.solve(entry, maxDepth, timeMillis);
+            results.add(result);
+
+            if (result.isSolved()) {
+                solved++;
+            }
+            System.out.printf("%-24s %-7s %5d %10d %10d  %s%n",
+                    entry.moves, entry.bestText, result.depth, result.nodes,
+                    result.micros, result.isSolved() ? "ok"
+                    : "FAILED, played " + result.column);
+        }
+        System.out.printf("solved %d of %d in %d us%n", solved,
+                entries.size(), totalMicros(results));
+
+        if (baseline == null) {
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            writeBaseline(baseline, results);
+            System.out.println("baseline saved to " + baseline);
+        } else if (!compare(readBaseline(baseline), results, threshold)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Searches a position with increasing depth until the limit and
+     * records when it was solved. The table is cleared first, so results
+     * do not depend on the order of the positions. One search deepens by
+     * itself and reports every depth it finished.
+     *
+     * @param entry Position to solve.
+     * @param maxDepth Largest depth to search.
+     * @param timeMillis Time limit in milliseconds, 0 for none.
+     * @return The result.
+     */
+    private Result solve(Entry entry, int maxDepth, long timeMillis) {
+        ConnectFour game = ConnectFour.fromMoves(entry.moves);
+        SearchControl control = new SearchControl();
+        Result result = new Result(entry.moves);
+        int empty = Board.ROWS * Board.COLS - entry.moves.length();
+
+        table.clear();
+        game.setTranspositionTable(table);
+        long start = System.nanoTime();
+
+        if (timeMillis > 0) {
+            control.setTimeBudget(timeMillis);
+        }
+
+        control.setResultListener(c -> {
+            result.column = c.getBestColumn();
+
+            if (!entry.isBest(result.column)) {
+                result.depth = 0;
+            } else if (result.depth == 0) {
+                result.depth = c.getDepth();
+                result.nodes = c.getNodes();
+                result.micros = (System.nanoTime() - start) / 1000;
+            }
+        });
+        game.setLevel(Math.min(maxDepth, empty));
+        game.machineMove(control);
+
+        if (!entry.isBest(result.column)) {
+            result.depth = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Compares results with a baseline and prints every regression.
+     *
+     * @param baseline Results of the baseline by move string.
+     * @param results Results of this run.
+     * @param threshold Factor the nodes and the total time to solution may
+     *                  grow by.
+     * @return True if there is no regression.
+     */
+    private static boolean compare(Map<String, Result> baseline,
+                                   List<Result> results, double threshold) {
+        boolean passed = true;
+        List<Result> compared = new ArrayList<>();
+        List<Result> bases = new ArrayList<>();
+
+        for (Result result : results) {
+            Result base = baseline.get(result.moves);
+
+            if (base == null || !base.isSolved()) {
+                continue;
+            }
+            if (!result.isSolved()) {
+                System.out.println("REGRESSION " + result.moves
+                        + ": no longer solved");
+                passed = false;
+                continue;
+            }
+            if (result.nodes > base.nodes * threshold) {
+                System.out.printf("REGRESSION %s: %d nodes instead of %d%n",
+                        result.moves, result.nodes, base.nodes);
+                passed = false;
+            }
+            compared.add(result);
+            bases.add(base);
+        }
+
+        long micros = totalMicros(compared);
+        long baseMicros = totalMicros(bases);
+        if (micros > baseMicros * threshold) {
+            System.out.printf("REGRESSION total: %d us instead of %d us%n",
+                    micros, baseMicros);
+            passed = false;
+        }
+        System.out.println(passed ? "no regression against baseline"
+                : "regressions against baseline");
+        return passed;
+    }
+
+    /**
+     * Adds up the times to solution.
+     *
+     * @param results The results.
+     * @return Time to solution of all solved positions in microseconds.
+     */
+    private static long totalMicros(List<Result> results) {
+        long micros = 0;
+
+        for (Result result : results) {
+            if (result.isSolved()) {
+                micros += result.micros;
+            }
+        }
+        return micros;
+    }
+
+    /**
+     * Reads a suite file.
+     *
+     * @param suite Path of the file or {@code -} for the built-in suite.
+     * @return The positions.
+     * @throws IOException Reading failed.
+     */
+    private static List<Entry> readSuite(String suite) throws IOException {
+        InputStream in = suite.equals("-")
+                ? PositionSuite.class.getResourceAsStream(DEFAULT_SUITE)
+                : Files.newInputStream(Paths.get(suite));
+
+        if (in == null) {
+            throw new IOException("Built-in suite not found");
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                in, StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String[] fields = (comment < 0 ? line
+                        : line.substring(0, comment)).trim().split("\\s+");
+
+                if (fields.length == 2) {
+                    entries.add(new Entry(fields[0], fields[1]));
+                } else if (fields.length > 2) {
+                    throw new IOException("Invalid suite line: " + line);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads a baseline file.
+     *
+     * @param file The baseline.
+     * @return The results by move string.
+     * @throws IOException Reading failed.
+     */
+    private static Map<String, Result> readBaseline(Path file)
+            throws IOException {
+        Map<String, Result> baseline = new HashMap<>();
+
+        for (String line : Files.readAllLines(file)) {
+            String[] fields = line.trim().split("\\s+");
+
+            if (fields.length == 4) {
+                Result result = new Result(fields[0]);
+                result.depth = Integer.parseInt(fields[1]);
+                result.nodes = Long.parseLong(fields[2]);
+                result.micros = Long.parseLong(fields[3]);
+                baseline.put(result.moves, result);
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Writes results as baseline file with one line per position: moves,
+     * depth, nodes and time to solution in microseconds.
+     *
+     * @param file The baseline.
+     * @param results Results to save.
+     * @throws IOException Writing failed.
+     */
+    private static void writeBaseline(Path file, List<Result> results)
+            throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(
+                file))) {
+            for (Result result : results) {
+                out.printf("%s %d %d %d%n", result.moves, result.depth,
+                        result.nodes, result.micros);
+            }
+            if (out.checkError()) {
+                throw new IOException("Writing baseline failed: " + file);
+            }
+        }
+    }
+
+    /**
+     * A position of the suite.
+     */
+    private static final class Entry {
+
+        private final String moves;
+        private final String bestText;
+        private final boolean[] best = new boolean[Board.COLS + 1];
+
+        /**
+         * Creates a position.
+         *
+         * @param moves Move string of the position.
+         * @param bestText Best columns separated by commas.
+         */
+        Entry(String moves, String bestText) {
+            this.moves = moves;
+            this.bestText = bestText;
+
+            for (String col : bestText.split(",")) {
+                best[Integer.parseInt(col)] = true;
+            }
+        }
+
+        /**
+         * Checks if a column is one of the best moves.
+         *
+         * @param col Column from 1 to {@link Board#COLS}, 0 for none.
+         * @return True if the column is a best move.
+         */
+        boolean isBest(int col) {
+            return col > 0 && col < best.length && best[col];
+        }
+    }
+
+    /**
+     * Result of one position.
+     */
+    private static final class Result {
+
+        private final String moves;
+        private int column = 0;
+        private int depth = 0;
+        private long nodes = 0;
+        private long micros = 0;
+
+        /**
+         * Creates an empty result.
+         *
+         * @param moves Move string of the position.
+         */
+        Result(String moves) {
+            this.moves = moves;
+        }
+
+        /**
+         * Checks if the position was solved.
+         *
+         * @return True if a best move was chosen from some depth on.
+         */
+        boolean isSolved() {
+            return depth > 0;
+        }
+    }
+}
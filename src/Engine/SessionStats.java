@@ -0,0 +1,99 @@
+package Engine;
+
+/**
+ * Snapshot of the statistics of one game session.
+ */
+public final class SessionStats {
+
+    private final int machineMoves;
+    private final long nodes;
+    private final long tableHits;
+    private final long searchNanos;
+    private final long peakBytes;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param machineMoves Number of machine moves searched so far.
+     * @param nodes Number of boards generated by all searches.
+     * @param tableHits Number of boards taken from the transposition table.
+     * @param searchNanos Time spent in searches in nanoseconds.
+     * @param peakBytes Largest heap memory a single search held.
+     */
+    SessionStats(int machineMoves, long nodes, long tableHits,
+                 long searchNanos, long peakBytes) {
+        this.machineMoves = machineMoves;
+        this.nodes = nodes;
+        this.tableHits = tableHits;
+        this.searchNanos = searchNanos;
+        this.peakBytes = peakBytes;
+    }
+
+    /**
+     * Gets the number of machine moves searched so far.
+     *
+     * @return Number of machine moves.
+     */
+    public int getMachineMoves() {
+        return machineMoves;
+    }
+
+    /**
+     * Gets the number of boards generated by all searches of the session.
+     *
+     * @return Number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the number of boards whose value came from the shared table.
+     *
+     * @return Number of table hits.
+     */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * Gets the time spent in searches.
+     *
+     * @return Search time in nanoseconds.
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    /**
+     * Gets the largest heap memory a single search of the session held. The
+     * shared transposition table is not counted.
+     *
+     * @return Peak memory usage in bytes.
+     */
+    public long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /**
+     * Gets the search speed of the session.
+     *
+     * @return Nodes per second, 0 if nothing was searched yet.
+     */
+    public long getNodesPerSecond() {
+        if (searchNanos == 0) {
+            return 0;
+        }
+        return nodes * 1_000_000_000L / searchNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("moves %d nodes %d hits %d time %d ms nps %d"
+                + " peak %d bytes", machineMoves, nodes, tableHits,
+                searchNanos / 1_000_000, getNodesPerSecond(), peakBytes);
+    }
+}
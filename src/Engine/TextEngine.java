@@ -0,0 +1,360 @@
+package Engine;
+
+import Model.Board;
+import Model.ConnectFour;
+import Model.IllegalMoveException;
+import Model.MoveStrategies;
+import Model.MoveStrategy;
+import Model.SearchControl;
+import Model.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless engine that is driven by a line based text protocol over standard
+ * input and output. Commands are executed one after another in the order
+ * they arrive, so a whole script can be piped through the engine. Only
+ * {@code stop} takes effect immediately and ends the running search and
+ * every search queued before it.
+ *
+ * <pre>
+ * position [startpos] [moves] 4453   set the position by its move string
+ * engine minimax                     choose the move strategy by name
+ * go depth 5                         search up to the given depth
+ * go movetime 1000                   search for the given milliseconds
+ * go infinite                        search until stop
+ * stop                               stop the running and queued searches
+ * isready                            answers readyok when all commands before
+ *                                    are done
+ * quit                               exit after all commands before are done
+ * </pre>
+ *
+ * After every finished depth the engine prints
+ * {@code info depth D score S nodes N nps X time T pv C}, at the end of a
+ * search {@code bestmove C}. A strategy whose level is no depth, like
+ * {@code montecarlo} with {@code depth} times 4096 playouts, searches once
+ * and prints {@code info nodes N nps X time T score S pv C}; for
+ * {@code montecarlo} the nodes are playouts and the score is the share of
+ * won playouts in per mille. Columns are numbered from 1 to
+ * {@link Board#COLS}. The machine always plays the side to move.
+ */
+public final class TextEngine {
+
+    private static final String QUIT = "quit";
+    private static final int DEFAULT_DEPTH = 4;
+    private static final long TABLE_BYTES = 64L << 20;
+
+    private final BlockingQueue<Command> commands
+            = new LinkedBlockingQueue<>();
+    private final AtomicLong stops = new AtomicLong();
+    private final ScheduledExecutorService timer
+            = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "engine-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final PrintStream out;
+    private final TranspositionTable table
+            = new TranspositionTable(TABLE_BYTES);
+    private volatile SearchControl running;
+    private String moves = "";
+    private MoveStrategy strategy = MoveStrategies.getDefault();
+
+    /**
+     * Creates an engine that writes its answers to the given stream.
+     *
+     * @param out Stream for the protocol output.
+     */
+    private TextEngine(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Reads commands from standard input until {@code quit} or end of input.
+     *
+     * @param args /
+     * @throws IOException Reading standard input failed.
+     * @throws InterruptedException Interrupted while waiting for the worker.
+     */
+    public static void main(String[] args) throws IOException,
+            InterruptedException {
+        TextEngine engine = new TextEngine(System.out);
+        Thread worker = new Thread(engine::processCommands, "engine-worker");
+        worker.start();
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                System.in, StandardCharsets.UTF_8));
+        String line;
+
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+
+            if (line.equals("stop")) {
+                engine.stopSearch();
+            } else if (!line.isEmpty()) {
+                engine.commands.put(new Command(line, engine.stops.get()));
+            }
+            if (line.equals(QUIT)) {
+                break;
+            }
+        }
+
+        // End of input acts like quit.
+        engine.commands.put(new Command(QUIT, engine.stops.get()));
+        worker.join();
+    }
+
+    /**
+     * Stops the running search, if there is one, and the searches of all
+     * queued {@code go} commands.
+     */
+    private void stopSearch() {
+        stops.incrementAndGet();
+        SearchControl control = running;
+
+        if (control != null) {
+            control.stop();
+        }
+    }
+
+    /**
+     * Executes queued commands in order until {@code quit} is taken.
+     */
+    private void processCommands() {
+        try {
+            Command command = commands.take();
+
+            while (!command.line.equals(QUIT)) {
+                execute(command);
+                command = commands.take();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Executes a single command.
+     *
+     * @param command The command.
+     */
+    private void execute(Command command) {
+        String[] tokens = command.line.split("\\s+");
+
+        switch (tokens[0]) {
+        case "position":
+            setPosition(tokens);
+            break;
+        case "engine":
+            setEngine(tokens);
+            break;
+        case "go":
+            go(tokens, command.stops);
+            break;
+        case "isready":
+            send("readyok");
+            break;
+        default:
+            send("info string unknown command " + tokens[0]);
+        }
+    }
+
+    /**
+     * Sets the position from its move string. The keywords {@code startpos}
+     * and {@code moves} are optional.
+     *
+     * @param tokens Tokens of the position command.
+     */
+    private void setPosition(String[] tokens) {
+        StringBuilder newMoves = new StringBuilder();
+
+        for (int i = 1; i < tokens.length; i++) {
+            if (!tokens[i].equals("startpos") && !tokens[i].equals("moves")) {
+                newMoves.append(tokens[i]);
+            }
+        }
+
+        try {
+            ConnectFour.fromMoves(newMoves.toString());
+            moves = newMoves.toString();
+        } catch (IllegalArgumentException | IllegalMoveException ex) {
+            send("info string invalid position: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Chooses the move strategy of the following searches.
+     *
+     * @param tokens Tokens of the engine command.
+     */
+    private void setEngine(String[] tokens) {
+        try {
+            strategy = MoveStrategies.get(tokens.length > 1 ? tokens[1] : "");
+        } catch (IllegalArgumentException ex) {
+            send("info string " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Searches the current position with increasing depth until the depth
+     * or time limit is reached or the search is stopped, and prints the best
+     * move of the deepest finished iteration.
+     *
+     * @param tokens Tokens of the go command.
+     * @param stopsBefore Number of stop commands read before the go
+     *                    command.
+     */
+    private void go(String[] tokens, long stopsBefore) {
+        int emptySlots = Board.ROWS * Board.COLS - moves.length();
+        int maxDepth = DEFAULT_DEPTH;
+        long moveTime = 0;
+        boolean unlimited = false;
+
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                if (tokens[i].equals("depth") && i + 1 < tokens.length) {
+                    maxDepth = Integer.parseInt(tokens[++i]);
+                } else if (tokens[i].equals("movetime")
+                        && i + 1 < tokens.length) {
+                    moveTime = Long.parseLong(tokens[++i]);
+                    maxDepth = emptySlots;
+                    unlimited = true;
+                } else if (tokens[i].equals("infinite")) {
+                    maxDepth = emptySlots;
+                    unlimited = true;
+                }
+            }
+        } catch (NumberFormatException ex) {
+            send("info string invalid number: " + ex.getMessage());
+            return;
+        }
+
+        if (ConnectFour.fromMoves(moves).isGameOver()) {
+            send("info string game is over");
+            send("bestmove none");
+            return;
+        }
+
+        SearchControl control = new SearchControl();
+        running = control;
+        if (stops.get() != stopsBefore) {
+            // A stop arrived while the command was queued.
+            control.stop();
+        }
+        ScheduledFuture<?> deadline = null;
+
+        if (moveTime > 0) {
+            deadline = timer.schedule(control::stop, moveTime,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        long start = System.nanoTime();
+        int bestColumn = 0;
+
+        if (!strategy.isDepthLimited()) {
+            ConnectFour game = ConnectFour.fromMoves(moves);
+            game.setMoveStrategy(strategy);
+            game.setTranspositionTable(table);
+            game.setLevel(unlimited ? Integer.MAX_VALUE : maxDepth);
+            game.machineMove(control);
+
+            // The search is anytime, its result counts even when stopped.
+            bestColumn = control.getBestColumn();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long nps = control.getNodes() * 1000 / Math.max(1, millis);
+
+            send(String.format("info nodes %d nps %d time %d score %d"
+                    + " pv %d", control.getNodes(), nps, millis,
+                    control.getScore(), bestColumn));
+        } else if (maxDepth > 0) {
+            ConnectFour game = ConnectFour.fromMoves(moves);
+            game.setMoveStrategy(strategy);
+            game.setLevel(Math.min(maxDepth, emptySlots));
+            game.setTranspositionTable(table);
+
+            // The search deepens by itself and reports every depth.
+            control.setResultListener(c -> {
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                long nps = c.getNodes() * 1000 / Math.max(1, millis);
+
+                send(String.format("info depth %d score %d nodes %d nps %d"
+                        + " time %d pv %d", c.getDepth(), c.getScore(),
+                        c.getNodes(), nps, millis, c.getBestColumn()));
+            });
+            game.machineMove(control);
+
+            // The deepest finished depth counts, also when stopped.
+            bestColumn = control.getBestColumn();
+        }
+
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+        running = null;
+
+        if (bestColumn == 0) {
+            // Stopped before the first depth finished, take any legal move.
+            bestColumn = firstLegalColumn();
+        }
+        send("bestmove " + bestColumn);
+    }
+
+    /**
+     * Gets the first column of the current position that is not full.
+     *
+     * @return Column from 1 to {@link Board#COLS}.
+     */
+    private int firstLegalColumn() {
+        ConnectFour game = ConnectFour.fromMoves(moves);
+
+        for (int col = 1; col <= Board.COLS; col++) {
+            if (game.getSlot(Board.ROWS, col) == null) {
+                return col;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes a line of protocol output and flushes it.
+     *
+     * @param line Line to write.
+     */
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    /**
+     * A queued command line.
+     */
+    private static final class Command {
+
+        private final String line;
+        private final long stops;
+
+        /**
+         * Creates a command.
+         *
+         * @param line The command line.
+         * @param stops Number of stop commands read before it.
+         */
+        Command(String line, long stops) {
+            this.line = line;
+            this.stops = stops;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package Engine;
+
+import Model.ConnectFour;
+import Model.SearchControl;
+import Model.SearchTracer;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records and prints traces of machine searches as written by
+ * {@link SearchTracer}.
+ *
+ * {@code record MOVES LEVEL FILE} lets the machine move in the position of
+ * the move string and traces its search. {@code FILE [NODE [LEVELS]]}
+ * prints the subtree of a node, or of every iteration root if the node is
+ * omitted or {@code -}, down to the given number of levels (default 1).
+ * The trace is read as a stream; only the printed levels of the current
+ * subtree are kept in memory.
+ */
+public final class TraceReader {
+
+    private static final String[] BOUNDS = {"", " lower", " upper"};
+
+    private final int target;
+    private final int levels;
+    private final List<Node> window = new ArrayList<>();
+    private int shallowest = Integer.MAX_VALUE;
+
+    /**
+     * Creates a reader.
+     *
+     * @param target Number of the node to print or -1 for all roots.
+     * @param levels Number of levels to print below the node.
+     */
+    private TraceReader(int target, int levels) {
+        this.target = target;
+        this.levels = levels;
+    }
+
+    /**
+     * Records or prints a trace.
+     *
+     * @param args {@code record}, move string, level and trace file, or
+     *             trace file, node number and number of levels. The node
+     *             and the levels are optional.
+     * @throws IOException Reading or writing the trace failed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 4 && args[0].equals("record")) {
+            record(args[1], Integer.parseInt(args[2]), Paths.get(args[3]));
+            return;
+        }
+        if (args.length < 1) {
+            System.err.println("usage: TraceReader record MOVES LEVEL FILE"
+                    + " | TraceReader FILE [NODE [LEVELS]]");
+            System.exit(2);
+        }
+
+        int target = args.length > 1 && !args[1].equals("-")
+                ? Integer.parseInt(args[1]) : -1;
+        int levels = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        new TraceReader(target, levels).read(Paths.get(args[0]));
+    }
+
+    /**
+     * Traces one machine move.
+     *
+     * @param moves Move string of the position.
+     * @param level Level of the machine.
+     * @param file Trace file.
+     * @throws IOException Writing the trace failed.
+     */
+    private static void record(String moves, int level, Path file)
+            throws IOException {
+        ConnectFour game = ConnectFour.fromMoves(moves);
+        SearchControl control = new SearchControl();
+
+        game.setLevel(level);
+        try (SearchTracer tracer = new SearchTracer(file)) {
+            control.setTracer(tracer);
+            game.machineMove(control);
+            System.out.printf("column %d score %d depth %d, %d nodes traced%n",
+                    control.getBestColumn(), control.getScore(),
+                    control.getDepth(), tracer.getNodes());
+        }
+    }
+
+    /**
+     * Reads a trace and prints the requested subtrees.
+     *
+     * @param file Trace file.
+     * @throws IOException Reading failed or the file is no trace.
+     */
+    private void read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SearchTracer.MAGIC
+                    || in.readUnsignedByte() != SearchTracer.VERSION) {
+                throw new IOException("Not a search trace: " + file);
+            }
+
+            int last = 0;
+            int first;
+            while ((first = in.read()) >= 0) {
+                Node node = new Node();
+                node.id = last + unzigzag(readVarint(in, first));
+                int parentDelta = readVarint(in, in.readUnsignedByte());
+                node.parent = parentDelta == 0 ? -1 : node.id - parentDelta;
+                int packed = in.readUnsignedByte();
+                node.column = packed & 7;
+                node.bound = packed >> 3;
+                node.depth = in.readUnsignedByte();
+                node.ply = in.readUnsignedByte();
+                node.staticValue = unzigzag(readVarint(in,
+                        in.readUnsignedByte()));
+                node.value = unzigzag(readVarint(in, in.readUnsignedByte()));
+                last = node.id;
+
+                if (accept(node)) {
+                    return;
+                }
+            }
+        }
+        if (target >= 0) {
+            System.out.println("node " + target + " not in trace");
+        }
+    }
+
+    /**
+     * Passes one record through the filter. Records are in the order their
+     * values became known, so the subtree of a node directly precedes it
+     * and consists of the larger node numbers.
+     *
+     * @param node The record.
+     * @return True if the requested node was printed and reading can stop.
+     */
+    private boolean accept(Node node) {
+        boolean done = target >= 0 ? node.id == target : node.parent < 0;
+
+        if (done) {
+            window.add(node);
+            print(node);
+            window.clear();
+            shallowest = Integer.MAX_VALUE;
+            return target >= 0;
+        }
+        if (node.id < target) {
+            // Not below the requested node, an earlier sibling subtree.
+            window.clear();
+            shallowest = Integer.MAX_VALUE;
+            return false;
+        }
+
+        // Every child is one move further from the root than its parent,
+        // while extended children keep their parent's depth. So the nearest
+        // record to the root tells which levels are still below the printed
+        // ones.
+        if (node.ply < shallowest) {
+            shallowest = node.ply;
+            window.removeIf(n -> n.ply > shallowest + levels);
+        }
+        if (node.ply <= shallowest + levels) {
+            window.add(node);
+        }
+        return false;
+    }
+
+    /**
+     * Prints the collected subtree of a node in search order, indented by
+     * level.
+     *
+     * @param top The node whose subtree is in the window.
+     */
+    private void print(Node top) {
+        window.sort(Comparator.comparingInt(n -> n.id));
+        Map<Integer, Integer> level = new HashMap<>();
+
+        for (Node node : window) {
+            Integer parentLevel = level.get(node.parent);
+            int nodeLevel = node == top ? 0
+                    : parentLevel == null ? -1 : parentLevel + 1;
+
+            if (nodeLevel < 0 || nodeLevel > levels) {
+                continue;
+            }
+            level.put(node.id, nodeLevel);
+
+            StringBuilder b = new StringBuilder();
+            for (int i = 0; i < nodeLevel; i++) {
+                b.append("  ");
+            }
+            b.append('#').append(node.id)
+                    .append(node.column == 0 ? " root"
+                            : " col " + node.column)
+                    .append(" depth ").append(node.depth)
+                    .append(" static ").append(node.staticValue)
+                    .append(" value ").append(node.value)
+                    .append(BOUNDS[node.bound]);
+            System.out.println(b);
+        }
+    }
+
+    /**
+     * Reads the rest of a varint.
+     *
+     * @param in The trace.
+     * @param first First byte of the varint.
+     * @return The unsigned value.
+     * @throws IOException Reading failed or the trace is truncated.
+     */
+    private static int readVarint(InputStream in, int first)
+            throws IOException {
+        int value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+
+        while ((b & 0x80) != 0) {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated trace");
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a zigzag encoded value.
+     *
+     * @param value Zigzag encoded value.
+     * @return Signed value.
+     */
+    private static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * One traced board.
+     */
+    private static final class Node {
+
+        private int id;
+        private int parent;
+        private int column;
+        private int bound;
+        private int depth;
+        private int ply;
+        private int staticValue;
+        private int value;
+    }
+}
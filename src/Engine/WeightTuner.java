@@ -0,0 +1,313 @@
+package Engine;
+
+import Model.Board;
+import Model.ConnectFour;
+import Model.EvaluationWeights;
+import Model.SearchControl;
+import Model.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tunes the evaluation weights from self-play games. The machine plays
+ * against itself on several threads, every position is stored with its
+ * features and the final result, and the weights are then optimized so that
+ * the static value predicts the results as well as possible (Texel tuning
+ * with a local search over single weights).
+ *
+ * The static value is linear in the weights, so a position is evaluated
+ * with other weights by a dot product of the stored features. The features
+ * of all positions are kept in one flat array and evaluated in batches.
+ */
+public final class WeightTuner {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final long TABLE_BYTES = 64L << 20;
+    private static final double[] SCALES = {1, 2, 5, 10, 20, 50, 100, 200,
+        500, 1000, 2000, 5000};
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table
+            = new TranspositionTable(TABLE_BYTES);
+    private int[] features = new int[0];
+    private double[] results = new double[0];
+    private int positions = 0;
+    private long evaluations = 0;
+    private double scale = 1;
+
+    /**
+     * Creates a tuner.
+     *
+     * @param threads Number of threads for self-play and evaluation.
+     */
+    private WeightTuner(int threads) {
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Plays self-play games, tunes the weights and prints them.
+     *
+     * @param args Number of games, search level, number of random opening
+     *             moves and threads. All optional.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int randomPlies = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+
+        WeightTuner tuner = new WeightTuner(threads);
+        EvaluationWeights weights = EvaluationWeights.DEFAULT;
+
+        long start = System.nanoTime();
+        tuner.selfPlay(games, level, randomPlies, weights);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("self-play: %d games, %d positions, %.0f positions/s"
+                + "%n", games, tuner.positions, tuner.positions / seconds);
+
+        start = System.nanoTime();
+        EvaluationWeights tuned = tuner.tune(weights);
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("tuning: %d evaluations, %.0f positions/s%n",
+                tuner.evaluations, tuner.evaluations / seconds);
+        System.out.println("tuned weights: " + tuned);
+
+        tuner.pool.shutdown();
+    }
+
+    /**
+     * Plays games of the machine against itself in parallel and stores their
+     * positions.
+     *
+     * @param games Number of games.
+     * @param level Search level of both sides.
+     * @param randomPlies Number of random moves at the start of each game.
+     * @param weights Weights both sides play with.
+     */
+    private void selfPlay(int games, int level, int randomPlies,
+                          EvaluationWeights weights) {
+        List<List<Sample>> played = pool.submit(() ->
+                IntStream.range(0, games).parallel()
+                        .mapToObj(i -> playGame(new Random(i), level,
+                                randomPlies, weights, table))
+                        .collect(ArrayList<List<Sample>>::new, List::add,
+                                List::addAll)).join();
+
+        for (List<Sample> game : played) {
+            positions += game.size();
+        }
+        features = new int[positions * EvaluationWeights.SIZE];
+        results = new double[positions];
+
+        int index = 0;
+        for (List<Sample> game : played) {
+            for (Sample sample : game) {
+                System.arraycopy(sample.features, 0, features,
+                        index * EvaluationWeights.SIZE,
+                        EvaluationWeights.SIZE);
+                results[index] = sample.result;
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Plays one game of the machine against itself.
+     *
+     * @param random Source of the opening moves.
+     * @param level Search level of both sides.
+     * @param randomPlies Number of random moves at the start.
+     * @param weights Weights both sides play with.
+     * @param table Table shared by all games.
+     * @return The positions of the game with the machine to move.
+     */
+    private static List<Sample> playGame(Random random, int level,
+                                         int randomPlies,
+                                         EvaluationWeights weights,
+                                         TranspositionTable table) {
+        StringBuilder moves = new StringBuilder();
+        List<int[]> seen = new ArrayList<>();
+        ConnectFour game = ConnectFour.fromMoves("");
+
+        while (!game.isGameOver()) {
+            int col;
+
+            if (moves.length() < randomPlies) {
+                do {
+                    col = random.nextInt(Board.COLS) + 1;
+                } while (game.getSlot(Board.ROWS, col) != null);
+            } else {
+                game.setLevel(level);
+                game.setEvaluationWeights(weights);
+                game.setTranspositionTable(table);
+                seen.add(game.getEvaluationFeatures());
+
+                SearchControl control = new SearchControl();
+                game.machineMove(control);
+                col = control.getBestColumn();
+            }
+            moves.append(col);
+            game = ConnectFour.fromMoves(moves.toString());
+        }
+
+        // The player of the last move is the winner, if there is one.
+        int winnerSide = game.getWinner() == null ? -1
+                : (moves.length() - 1) % 2;
+        int firstSide = moves.length() - seen.size();
+        List<Sample> samples = new ArrayList<>(seen.size());
+
+        for (int i = 0; i < seen.size(); i++) {
+            int side = (firstSide + i) % 2;
+            double result = winnerSide < 0 ? 0.5 : winnerSide == side ? 1 : 0;
+            samples.add(new Sample(seen.get(i), result));
+        }
+        return samples;
+    }
+
+    /**
+     * Optimizes the weights by changing one weight at a time as long as the
+     * prediction error decreases, halving the step when nothing helps. The
+     * bot-win bonus is kept, it is no part of the static value.
+     *
+     * @param start Weights to start from.
+     * @return The tuned weights.
+     */
+    private EvaluationWeights tune(EvaluationWeights start) {
+        double bestError = Double.MAX_VALUE;
+        double bestScale = SCALES[0];
+
+        // Choose the scale of the static value that fits the start weights.
+        for (double candidate : SCALES) {
+            scale = candidate;
+            double error = error(start);
+
+            if (error < bestError) {
+                bestError = error;
+                bestScale = candidate;
+            }
+        }
+        scale = bestScale;
+        bestError = error(start);
+        System.out.printf("scale %.0f, start error %.6f%n", scale, bestError);
+
+        EvaluationWeights best = start;
+        int[] steps = new int[EvaluationWeights.SIZE];
+
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = Math.max(1, Math.abs(start.get(i)) / 4);
+        }
+        // The bot-win bonus has no feature, the static values do not depend
+        // on it. A step of 0 leaves it out.
+        steps[EvaluationWeights.BOT_WIN] = 0;
+
+        boolean stepsLeft = true;
+        while (stepsLeft) {
+            boolean improved = false;
+
+            for (int i = 0; i < EvaluationWeights.SIZE; i++) {
+                if (steps[i] == 0) {
+                    continue;
+                }
+                for (int sign = 1; sign >= -1; sign -= 2) {
+                    EvaluationWeights candidate = best.with(i,
+                            best.get(i) + sign * steps[i]);
+                    double error = error(candidate);
+
+                    if (error < bestError) {
+                        bestError = error;
+                        best = candidate;
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+
+            if (!improved) {
+                stepsLeft = false;
+
+                for (int i = 0; i < steps.length; i++) {
+                    if (steps[i] > 1) {
+                        steps[i] /= 2;
+                        stepsLeft = true;
+                    }
+                }
+            }
+        }
+        System.out.printf("final error %.6f%n", bestError);
+        return best;
+    }
+
+    /**
+     * Calculates the mean squared difference between the results and the
+     * win probabilities predicted by the static values of all positions.
+     *
+     * @param weights Weights to evaluate the positions with.
+     * @return The prediction error.
+     */
+    private double error(EvaluationWeights weights) {
+        int batches = (positions + BATCH_SIZE - 1) / BATCH_SIZE;
+        double sum = pool.submit(() -> IntStream.range(0, batches).parallel()
+                .mapToDouble(batch -> batchError(weights, batch)).sum())
+                .join();
+
+        evaluations += positions;
+        return sum / Math.max(1, positions);
+    }
+
+    /**
+     * Sums the squared prediction errors of one batch of positions.
+     *
+     * @param weights Weights to evaluate the positions with.
+     * @param batch Index of the batch.
+     * @return Sum of the squared errors.
+     */
+    private double batchError(EvaluationWeights weights, int batch) {
+        int[] w = new int[EvaluationWeights.SIZE];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = weights.get(i);
+        }
+
+        int end = Math.min(positions, (batch + 1) * BATCH_SIZE);
+        double sum = 0;
+
+        for (int p = batch * BATCH_SIZE; p < end; p++) {
+            int offset = p * EvaluationWeights.SIZE;
+            long value = 0;
+
+            for (int i = 0; i < w.length; i++) {
+                value += (long) w[i] * features[offset + i];
+            }
+
+            double predicted = 1 / (1 + Math.exp(-value / scale));
+            double difference = results[p] - predicted;
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    /**
+     * A position of a self-play game.
+     */
+    private static final class Sample {
+
+        private final int[] features;
+        private final double result;
+
+        /**
+         * Creates a sample.
+         *
+         * @param features Features from the view of the side to move.
+         * @param result 1 if the side to move won, 0 if it lost, 0.5 for a
+         *               tie.
+         */
+        Sample(int[] features, double result) {
+            this.features = features;
+            this.result = result;
+        }
+    }
+}
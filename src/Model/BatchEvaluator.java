@@ -0,0 +1,22 @@
+package Model;
+
+/**
+ * Static evaluation of many positions at once, see
+ * {@link Evaluator#evaluate(long[], long[], int, EvaluationWeights, int[])}.
+ */
+interface BatchEvaluator {
+
+    /**
+     * Calculates the static values of positions. The arrays of bitboards
+     * must be at least {@link Evaluator#BATCH_PADDING} longer than the
+     * number of positions, or the rest is evaluated without vectors.
+     *
+     * @param machine Bitboards of the machine's checkers.
+     * @param human Bitboards of the human's checkers.
+     * @param count Number of positions, the first ones of the arrays.
+     * @param weights Weights of the evaluation.
+     * @param values Receives the static board values.
+     */
+    void evaluate(long[] machine, long[] human, int count,
+                  EvaluationWeights weights, int[] values);
+}
@@ -1,6 +1,7 @@
 package Model;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Interface for a Connect Four game originally published by Milton Bradley (MB)
@@ -60,6 +61,19 @@ public interface Board extends Cloneable {
      */
     Board machineMove();
 
+    /**
+     * Analyzes every legal column for the player to move, human or machine,
+     * in one search. The search looks ahead up to the given depth or stops
+     * at the time limit with the results of the last finished depth. This
+     * instance is not changed.
+     *
+     * @param depth Number of moves to look ahead, at least 1.
+     * @param timeLimit Time limit in milliseconds, 0 for none.
+     * @return Score and principal variation of every legal column in column
+     *         order, empty if the game is over.
+     */
+    List<ColumnAnalysis> analyze(int depth, long timeLimit);
+
     /**
      * Sets the skill level of the machine.
      * 
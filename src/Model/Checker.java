@@ -1,31 +1,33 @@
 package Model;
 
 /**
- * Represents a checker in the game
+ * Represents a checker in the game. Checkers are immutable and shared
+ * between boards.
  */
 public class Checker implements Cloneable {
 
-    private Player owner;
-    private Coordinates2D position;
+    private final byte side;
+    private final Coordinates2D position;
 
     /**
      * Creates a new Model.Checker
      *
      * @param position Position in game board
-     * @param owner Owner of Model.Checker
+     * @param side Index of the owner, 0 for the player who moved first and 1
+     *             for the other one.
      */
-    public Checker(Coordinates2D position, Player owner) {
+    public Checker(Coordinates2D position, byte side) {
         this.position = position;
-        this.owner = owner;
+        this.side = side;
     }
 
     /**
-     * Returns the owner
+     * Returns the index of the owner
      *
-     * @return Owner of the checker
+     * @return 0 if the checker belongs to the first player, 1 otherwise.
      */
-    public Player getOwner() {
-        return owner;
+    public byte getSide() {
+        return side;
     }
 
     /**
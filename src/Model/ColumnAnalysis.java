@@ -0,0 +1,79 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * Result of analyzing one column: the value of dropping a checker there and
+ * the line of play the search expects to follow.
+ */
+public final class ColumnAnalysis {
+
+    private final int column;
+    private final int score;
+    private final int depth;
+    private final int[] principalVariation;
+
+    /**
+     * Creates the analysis of a column.
+     *
+     * @param column Column from 1 to {@link Board#COLS}.
+     * @param score Value of the move for the side to move.
+     * @param depth Number of moves the search looked ahead.
+     * @param principalVariation Expected columns from 1 to
+     *                           {@link Board#COLS}, starting with this one.
+     */
+    ColumnAnalysis(int column, int score, int depth,
+                   int[] principalVariation) {
+        this.column = column;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * Gets the analyzed column.
+     *
+     * @return Column from 1 to {@link Board#COLS}.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the value of the move, larger is better for the side to move.
+     * Values of different columns of one analysis are comparable.
+     *
+     * @return Board value of the move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the depth the score was searched with.
+     *
+     * @return Number of moves looked ahead.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the expected line of play. It can be shorter than the depth if
+     * the game ends or the rest of the line was not kept by the search.
+     *
+     * @return Columns from 1 to {@link Board#COLS}, starting with this one.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "column " + column + " score " + score + " depth " + depth
+                + " pv " + Arrays.toString(principalVariation);
+    }
+}
@@ -0,0 +1,156 @@
+package Model;
+
+/**
+ * Evaluation terms of single columns, looked up by the contents of the
+ * column. A column holds at most {@link Board#ROWS} checkers from the bottom
+ * up, so its contents are encoded in {@link Position#HEIGHT} bits: the
+ * machine's checkers plus a bit above the top checker. The codes of all
+ * columns of a board are formed at once and lie at the bits of their
+ * columns. The table has an entry for every code and is built when the
+ * class is loaded.
+ *
+ * An entry packs one byte per term. Byte 0 is the machine's checkers minus
+ * the human's plus {@link #MATERIAL_BIAS}. The bytes
+ * {@link EvaluationWeights#MACHINE_TWO} to
+ * {@link EvaluationWeights#HUMAN_FOUR} count the vertical groups of that
+ * weight index. Entries of all columns of a board can be added up without
+ * one byte overflowing into the next.
+ */
+public final class ColumnTable {
+
+    /**
+     * Number of column codes.
+     */
+    public static final int CODES = 1 << Position.HEIGHT;
+
+    /**
+     * Added to the material difference of an entry, so that it is never
+     * negative.
+     */
+    public static final int MATERIAL_BIAS = Board.ROWS;
+
+    private static final long[] ENTRIES = new long[CODES];
+
+    /**
+     * Bitboard of the lowest slot of every column.
+     */
+    private static final long BOTTOM;
+
+    static {
+        long bottom = 0;
+        for (int col = 0; col < Board.COLS; col++) {
+            bottom |= 1L << (col * Position.HEIGHT);
+        }
+        BOTTOM = bottom;
+
+        for (int height = 0; height <= Board.ROWS; height++) {
+            int occupied = (1 << height) - 1;
+
+            for (int machine = 0; machine <= occupied; machine++) {
+                if ((machine & ~occupied) == 0) {
+                    ENTRIES[machine | 1 << height] = entry(machine,
+                            occupied & ~machine);
+                }
+            }
+        }
+    }
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private ColumnTable() {
+    }
+
+    /**
+     * Encodes the contents of all columns.
+     *
+     * @param machine Bitboard of the machine's checkers.
+     * @param human Bitboard of the human's checkers.
+     * @return Codes of the columns at the bits of the columns.
+     */
+    public static long encode(long machine, long human) {
+        // The occupied slots of a column are the lowest ones, so adding its
+        // lowest bit sets the bit above the top checker.
+        return machine | ((machine | human) + BOTTOM);
+    }
+
+    /**
+     * Gets the entry of a column.
+     *
+     * @param codes Codes of all columns as returned by {@link #encode}.
+     * @param col Array index of the column.
+     * @return Packed terms of the column.
+     */
+    public static long get(long codes, int col) {
+        return ENTRIES[(int) (codes >>> (col * Position.HEIGHT))
+                & CODES - 1];
+    }
+
+    /**
+     * Gets the material difference of one entry.
+     *
+     * @param entry Entry of a column.
+     * @return Machine's checkers minus the human's in the column.
+     */
+    public static int getMaterial(long entry) {
+        return ((int) entry & 0xFF) - MATERIAL_BIAS;
+    }
+
+    /**
+     * Gets a number of vertical groups of an entry or a sum of entries.
+     *
+     * @param entries Entry or sum of entries.
+     * @param index Weight index of the group, from
+     *              {@link EvaluationWeights#MACHINE_TWO} to
+     *              {@link EvaluationWeights#HUMAN_FOUR}.
+     * @return Number of groups.
+     */
+    public static int getGroups(long entries, int index) {
+        return (int) (entries >>> (8 * index)) & 0xFF;
+    }
+
+    /**
+     * Calculates the entry of a column.
+     *
+     * @param machine Column bits of the machine's checkers.
+     * @param human Column bits of the human's checkers.
+     * @return Packed terms of the column.
+     */
+    private static long entry(int machine, int human) {
+        long entry = Integer.bitCount(machine) - Integer.bitCount(human)
+                + MATERIAL_BIAS;
+
+        for (int size = 2; size <= Board.CONNECT; size++) {
+            entry |= (long) countRuns(machine, size)
+                    << (8 * (EvaluationWeights.MACHINE_TWO + size - 2));
+            entry |= (long) countRuns(human, size)
+                    << (8 * (EvaluationWeights.HUMAN_TWO + size - 2));
+        }
+        return entry;
+    }
+
+    /**
+     * Counts the runs of checkers of one length in a column. Runs longer
+     * than {@code CONNECT} count as runs of {@code CONNECT}.
+     *
+     * @param bits Column bits of one side.
+     * @param size Length of the runs.
+     * @return Number of runs.
+     */
+    private static int countRuns(int bits, int size) {
+        int runs = 0;
+        int length = 0;
+
+        for (int row = 0; row <= Board.ROWS; row++) {
+            if ((bits >>> row & 1) != 0) {
+                length++;
+            } else {
+                if (Math.min(length, Board.CONNECT) == size) {
+                    runs++;
+                }
+                length = 0;
+            }
+        }
+        return runs;
+    }
+}
@@ -1,8 +1,11 @@
 package Model;
 
 import java.awt.Color;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,15 +13,44 @@ import java.util.List;
  */
 public class ConnectFour implements Board, Cloneable {
 
-    private Checker[][] currBoard = new Checker[ROWS][COLS];
-    private GroupManager groups;
+    /**
+     * Side index of an empty slot or of a missing winner. Sides are indices
+     * into {@code players}, 0 for the player who moves first.
+     */
+    private static final byte NO_SIDE = -1;
+
+    /**
+     * Row and column steps of the four directions a line can run in:
+     * horizontal, vertical, rising diagonal and falling diagonal.
+     */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1},
+            {-1, 1}};
+
+    /**
+     * Size of the transposition table a game creates for itself if none was
+     * set.
+     */
+    private static final long DEFAULT_TABLE_BYTES = 16L << 20;
+
+    /**
+     * Checkers by column and row. Boards share the column arrays they did
+     * not change, so an array must never be written once a copy exists.
+     */
+    private Checker[][] columns = new Checker[COLS][ROWS];
     private Player[] players = new Player[2];
-    private Player currentPlayer;
-    private Player lastPlayer;
-    private int boardValue;
+    private byte machineSide;
+    private byte currentSide;
+    private byte lastSide = NO_SIDE;
     private int level = 4;
-    private ConnectFour[] gameTree = new ConnectFour[7];
     private boolean gameOver = false;
+    private int checkerCount = 0;
+    private byte winnerSide = NO_SIDE;
+    private Collection<Coordinates2D> witness;
+    private Position position = new Position();
+    private TranspositionTable table;
+    private EvaluationWeights weights = EvaluationWeights.DEFAULT;
+    private MoveStrategy strategy = MoveStrategies.getDefault();
+    private int threads = Runtime.getRuntime().availableProcessors();
 
     /**
      * Default constructor for game.
@@ -33,12 +65,51 @@ public class ConnectFour implements Board, Cloneable {
         if (switchPlayers) {
             players[0] = machine;
             players[1] = human;
+            machineSide = 0;
         } else {
             players[0] = human;
             players[1] = machine;
+            machineSide = 1;
+        }
+        currentSide = 0;
+    }
+
+    /**
+     * Creates a game from a sequence of moves. The players alternate starting
+     * with the first player, and the machine is the player whose turn it is
+     * after the last move.
+     *
+     * @param moves Columns of the moves as digits from 1 to {@code COLS}.
+     * @return The game with all moves executed.
+     * @throws IllegalArgumentException A character is not a valid column.
+     * @throws IllegalMoveException A column is full or the game was already
+     *         over before the last move.
+     */
+    public static ConnectFour fromMoves(String moves) {
+        ConnectFour game = new ConnectFour(moves.length() % 2 == 0);
+
+        for (int i = 0; i < moves.length(); i++) {
+            int col = Character.digit(moves.charAt(i), 10);
+
+            if (col < 1 || col > COLS) {
+                throw new IllegalArgumentException("Invalid column: "
+                        + moves.charAt(i));
+            }
+            if (game.gameOver) {
+                throw new IllegalMoveException("Game is over after move "
+                        + i);
+            }
+
+            game.currentSide = (byte) (i % 2);
+            ConnectFour next = game.play(col - 1);
+
+            if (next == null) {
+                throw new IllegalMoveException("Column " + col + " is full");
+            }
+            game = next;
         }
-        currentPlayer = players[0];
-        groups = new GroupManager(players[0], players[1]);
+        game.switchPlayer(true);
+        return game;
     }
 
     /**
@@ -54,30 +125,242 @@ public class ConnectFour implements Board, Cloneable {
      */
     @Override
     public Board move(int col) {
-        if (gameOver || (lastPlayer != null
-                && lastPlayer.compareTo(currentPlayer) == 0)) {
+        if (gameOver || lastSide == currentSide) {
 
             throw new IllegalMoveException();
         }
 
-        if (col > COLS && col < 1) {
+        if (col > COLS || col < 1) {
             throw new IllegalArgumentException();
         }
 
-        int column = col - 1;
+        return play(col - 1);
+    }
+
+    /**
+     * Lets the machine search store and reuse searched positions in the
+     * given table. The table may be shared with other games and threads. If
+     * no table is set, the first machine move creates one, which all boards
+     * derived from this one share.
+     *
+     * @param table Table to use.
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Sets the weights the machine evaluates boards with.
+     *
+     * @param weights Weights of the evaluation.
+     */
+    public void setEvaluationWeights(EvaluationWeights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Sets the strategy the machine chooses its moves with. Boards derived
+     * from this one keep it.
+     *
+     * @param strategy The strategy, see {@link MoveStrategies}.
+     */
+    public void setMoveStrategy(MoveStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Gets the strategy the machine chooses its moves with.
+     *
+     * @return The strategy.
+     */
+    public MoveStrategy getMoveStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets the number of threads a strategy may search with, if it can use
+     * more than one. The default is the number of processors.
+     *
+     * @param threads Number of threads, at least 1.
+     * @throws IllegalArgumentException The number is not positive.
+     */
+    public void setMachineThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: "
+                    + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the features of this board from the machine's point of view. The
+     * static value of the board is
+     * {@link EvaluationWeights#evaluate(int[])} of these features, so tools
+     * can evaluate a board with many different weights cheaply.
+     *
+     * @return Features in weight index order.
+     */
+    public int[] getEvaluationFeatures() {
+        return Evaluator.features(position.getBoard(machineSide),
+                position.getBoard(1 - machineSide));
+    }
+
+    /**
+     * Takes back the last move, by the human or the machine. Only the
+     * changed column is copied, this board is not changed. The player of the
+     * taken back move is to move again.
+     *
+     * @param col Column of the last move from 1 to {@link Board#COLS}.
+     * @return A new board without the last move.
+     * @throws IllegalArgumentException The column is invalid or empty.
+     */
+    public Board takeBack(int col) {
+        if (col > COLS || col < 1 || position.getHeight(col - 1) == 0) {
+            throw new IllegalArgumentException("No checker to take back in"
+                    + " column " + col);
+        }
+        int row = position.getHeight(col - 1) - 1;
+        ConnectFour newBoard = (ConnectFour) this.clone();
+
+        newBoard.columns = columns.clone();
+        newBoard.columns[col - 1] = columns[col - 1].clone();
+        newBoard.columns[col - 1][row] = null;
+        newBoard.checkerCount--;
+        newBoard.position.undo(col - 1);
+        newBoard.winnerSide = NO_SIDE;
+        newBoard.witness = null;
+        newBoard.gameOver = false;
+        newBoard.setSideToMove();
+        return newBoard;
+    }
+
+    /**
+     * Executes the move of whoever is to move, human or machine, as when
+     * replaying moves that were taken back.
+     *
+     * @param col Column from 1 to {@link Board#COLS}.
+     * @return A new board with the move executed or {@code null} if the column
+     *         is full.
+     * @throws IllegalMoveException The game is already over.
+     * @throws IllegalArgumentException The column is invalid.
+     */
+    public Board replay(int col) {
+        if (gameOver) {
+            throw new IllegalMoveException();
+        }
+        if (col > COLS || col < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        ConnectFour mover = (ConnectFour) this.clone();
+        mover.currentSide = (byte) position.getSideToMove();
+        ConnectFour newBoard = mover.play(col - 1);
+
+        if (newBoard != null) {
+            newBoard.setSideToMove();
+        }
+        return newBoard;
+    }
+
+    /**
+     * Sets the current player to the one whose turn it is in the position.
+     */
+    private void setSideToMove() {
+        switchPlayer(position.getSideToMove() == machineSide);
+
+        if (position.getMoves() == 0) {
+            lastSide = NO_SIDE;
+        }
+    }
+
+    /**
+     * Drops a checker of the current player into the given column without
+     * checking whose turn it is or whether the game is already over.
+     *
+     * @param column Array index of the column.
+     * @return A new board with the move executed or {@code null} if the column
+     *         is full.
+     */
+    private ConnectFour play(int column) {
+        int row = position.getHeight(column);
+
+        if (row == ROWS) {
+            return null;
+        }
+
         ConnectFour newBoard = (ConnectFour) this.clone();
+        Checker newChecker = new Checker(new Coordinates2D(row, column),
+                currentSide);
+
+        // Copy on write: only the changed column gets a new array.
+        newBoard.columns = columns.clone();
+        newBoard.columns[column] = columns[column].clone();
+        newBoard.columns[column][row] = newChecker;
+        newBoard.checkerCount++;
+        newBoard.position.play(column);
+        newBoard.detectGameOver(newChecker);
+        return newBoard;
+    }
+
+    /**
+     * Determines winner, witness and end of game after the given checker was
+     * placed. Only the lines running through the new checker can have been
+     * completed by it, so the four directions around it are walked once.
+     *
+     * @param checker The checker that was placed last.
+     */
+    private void detectGameOver(Checker checker) {
+        if (winnerSide == NO_SIDE) {
+            int row = checker.getPosition().getRow();
+            int col = checker.getPosition().getColumn();
+
+            for (int[] direction : DIRECTIONS) {
+                int dRow = direction[0];
+                int dCol = direction[1];
+                int startRow = row;
+                int startCol = col;
+
+                // Walk back to the first checker of the line against the
+                // direction.
+                while (isOwnedBy(startRow - dRow, startCol - dCol, checker)) {
+                    startRow -= dRow;
+                    startCol -= dCol;
+                }
 
-        for (int i = 0; i < ROWS; i++) {
-            if (currBoard[i][column] == null) {
-                Checker newChecker = new Checker(new Coordinates2D(i, column),
-                        currentPlayer);
+                int length = 1;
+                while (isOwnedBy(startRow + length * dRow,
+                        startCol + length * dCol, checker)) {
+                    length++;
+                }
 
-                newBoard.currBoard[i][column] = newChecker;
-                newBoard.groupSearch(newChecker); //check groups for new checker
-                return newBoard;
+                if (length >= CONNECT) {
+                    List<Coordinates2D> line = new ArrayList<>(CONNECT);
+
+                    for (int i = 0; i < CONNECT; i++) {
+                        line.add(new Coordinates2D(startRow + i * dRow,
+                                startCol + i * dCol));
+                    }
+                    winnerSide = checker.getSide();
+                    witness = Collections.unmodifiableList(line);
+                    break;
+                }
             }
         }
-        return null;
+        gameOver = winnerSide != NO_SIDE || checkerCount == ROWS * COLS;
+    }
+
+    /**
+     * Checks if the slot at the given array indices holds a checker of the
+     * same owner as the given checker.
+     *
+     * @param row Array index of the row.
+     * @param col Array index of the column.
+     * @param checker Model.Checker whose owner is compared.
+     * @return True if the slot is on the board and owned by the same player.
+     */
+    private boolean isOwnedBy(int row, int col, Checker checker) {
+        return isValidNeighbour(getCheckerByPosition(new Coordinates2D(row,
+                col)), checker);
     }
 
     /**
@@ -85,39 +368,117 @@ public class ConnectFour implements Board, Cloneable {
      */
     @Override
     public Board machineMove() {
+        return machineMove(new SearchControl());
+    }
+
+    /**
+     * Executes a machine move like {@link #machineMove()}. The search counts
+     * its nodes in the given control, stores the chosen column and its value
+     * there and can be stopped through it from another thread.
+     *
+     * @param control Control of this search.
+     * @return A new board with the move executed or {@code null} if the
+     *         search was stopped before it finished.
+     * @throws IllegalMoveException The game is already over.
+     */
+    public Board machineMove(SearchControl control) {
+        if (gameOver) {
+            throw new IllegalMoveException();
+        }
+
+        MachineMoveEvent event = new MachineMoveEvent();
+        long allocated = event.isEnabled() ? allocatedBytes() : 0;
+        long nodes = control.getNodes();
+        long tableHits = control.getTableHits();
+        long copies = control.getCopies();
+        event.begin();
+
         // switch current player to machine
         switchPlayer(true);
 
-        gameTree = generateGameTree(this, level);
-        calculateValues(gameTree, level);
-
-        // check if bot win is possible in next draw
-        addValueForPossibleBotWin();
+        // The strategy gets a copy, so that it cannot change the game.
+        control.countCopy();
+        int column = strategy.selectColumn(new Position(position),
+                new SearchBudget(level, control, weights, getTable(),
+                        threads)) - 1;
 
-        // get largest board value
-        int indexOfMaximum = getIndexOfMaximum(gameTree);
+        if (column < 0) {
+            return null;
+        }
+        if (column >= COLS || !position.canPlay(column)) {
+            throw new IllegalStateException("Strategy " + strategy.getName()
+                    + " chose illegal column " + (column + 1));
+        }
+        if (control.getBestColumn() != column + 1) {
+            // The strategy did not report its column.
+            control.setResult(column + 1, control.getScore(),
+                    control.getDepth());
+        }
 
-        ConnectFour machineMove = (ConnectFour) move(indexOfMaximum + 1);
-        gameTree = null;
+        MoveSelectionEvent selection = new MoveSelectionEvent();
+        long searchCopies = control.getCopies();
+        selection.begin();
+        ConnectFour machineMove = (ConnectFour) move(column + 1);
+        // The new board has a copy of the position.
+        control.countCopy();
         //switch current player to human
         machineMove.switchPlayer(false);
 
+        if (selection.shouldCommit()) {
+            selection.column = column + 1;
+            selection.score = control.getScore();
+            selection.clones = control.getCopies() - searchCopies;
+            selection.commit();
+        }
+
+        if (event.shouldCommit()) {
+            event.level = level;
+            event.depth = control.getDepth();
+            event.column = column + 1;
+            event.score = control.getScore();
+            event.nodes = control.getNodes() - nodes;
+            event.tableHits = control.getTableHits() - tableHits;
+            event.clones = control.getCopies() - copies;
+            event.allocatedBytes = allocatedBytes() - allocated;
+            event.peakBytes = control.getPeakBytes();
+            event.commit();
+        }
         return machineMove;
     }
 
     /**
-     * Adds the r-value from specification to board value if bot win is possible
-     * in next draw
+     * {@inheritDoc}
      */
-    private void addValueForPossibleBotWin() {
-        for (int i = 0; i < gameTree.length; i++) {
+    @Override
+    public List<ColumnAnalysis> analyze(int depth, long timeLimit) {
+        SearchControl control = new SearchControl();
 
-            if (gameTree[i] != null) {
-                if (gameTree[i].groups.isBotWinPossible()) {
-                    gameTree[i].boardValue += 500000;
-                }
-            }
+        if (timeLimit > 0) {
+            control.setTimeBudget(timeLimit);
         }
+        return analyze(depth, control);
+    }
+
+    /**
+     * Analyzes every legal column like {@link #analyze(int, long)}. The
+     * search counts its nodes in the given control, respects its budgets and
+     * can be stopped through it from another thread.
+     *
+     * @param depth Number of moves to look ahead, at least 1.
+     * @param control Control of this search.
+     * @return Score and principal variation of every legal column in column
+     *         order, empty if the game is over or the search was stopped
+     *         before the first depth finished.
+     */
+    public List<ColumnAnalysis> analyze(int depth, SearchControl control) {
+        if (gameOver) {
+            return Collections.emptyList();
+        }
+
+        // Scores are from the point of view of the side to move.
+        Search search = new Search(position, position.getSideToMove(),
+                weights, getTable(), control);
+        return search.analyzeRoot(depth);
     }
 
     /**
@@ -133,26 +494,7 @@ public class ConnectFour implements Board, Cloneable {
      */
     @Override
     public boolean isGameOver() {
-        if (isTie()) {
-            gameOver = true;
-            return true;
-        }
-
-        Group winningGroup = groups.getWinningGroup();
-
-        if (winningGroup != null) {
-
-            if (winningGroup.getOwner().compareTo(players[0]) == 0) {
-                players[0].setWinner(true);
-            } else {
-                players[1].setWinner(true);
-            }
-            gameOver = true;
-
-            return true;
-        } else {
-            return false;
-        }
+        return gameOver;
     }
 
     /**
@@ -160,13 +502,10 @@ public class ConnectFour implements Board, Cloneable {
      */
     @Override
     public Player getWinner() {
-        if (players[0].isWinner()) {
-            return players[0];
-
-        } else if (players[1].isWinner()) {
-            return players[1];
+        if (winnerSide == NO_SIDE) {
+            return null;
         }
-        return null;
+        return players[winnerSide];
     }
 
     /**
@@ -174,18 +513,9 @@ public class ConnectFour implements Board, Cloneable {
      */
     @Override
     public Collection<Coordinates2D> getWitness() {
-        if (!gameOver) {
+        if (winnerSide == NO_SIDE) {
             throw new IllegalStateException("There is no winner available!");
         }
-
-        List<Coordinates2D> witness = new ArrayList<>(4);
-        Collection<Checker> winningGroup
-                = groups.getWinningGroup().getSortedMembers();
-
-        for (Checker checker : winningGroup) {
-            witness.add(checker.getPosition());
-        }
-
         return witness;
     }
 
@@ -196,8 +526,8 @@ public class ConnectFour implements Board, Cloneable {
     public Player getSlot(int row, int col) {
         int arrayRow = row - 1;
         int arrayCol = col - 1;
-        if (currBoard[arrayRow][arrayCol] != null) {
-            return currBoard[arrayRow][arrayCol].getOwner();
+        if (columns[arrayCol][arrayRow] != null) {
+            return players[columns[arrayCol][arrayRow].getSide()];
         } else {
             return null;
         }
@@ -215,26 +545,9 @@ public class ConnectFour implements Board, Cloneable {
             throw new Error(ex);
         }
 
-        // Deep copy game board.
-        copy.currBoard = currBoard.clone();
-        for (int i = 0; i < currBoard.length; i++) {
-            copy.currBoard[i] = currBoard[i].clone();
-
-            for (int j = 0; j < currBoard[i].length; j++) {
-
-                if (currBoard[i][j] != null) {
-                    copy.currBoard[i][j] = currBoard[i][j].clone();
-                }
-            }
-        }
-
-        // Deep copy groups and current player.
-        copy.groups = groups.clone();
-        copy.currentPlayer = currentPlayer.clone();
-
-        Player[] newPlayers = new Player[2];
-        newPlayers[0] = players[0].clone();
-        newPlayers[1] = players[1].clone();
+        // Columns, checkers, players and witness are never changed and stay
+        // shared. Only the position is mutable.
+        copy.position = new Position(position);
 
         return copy;
     }
@@ -252,12 +565,12 @@ public class ConnectFour implements Board, Cloneable {
             b.append(newLine);
             for (int col = 0; col < COLS; col++) {
 
-                Checker currSlot = currBoard[row][col];
+                Checker currSlot = columns[col][row];
 
                 if (currSlot == null) {
                     b.append(".");
                 } else {
-                    b.append(currSlot.getOwner().getSymbol());
+                    b.append(players[currSlot.getSide()].getSymbol());
                 }
 
                 //If its the last column, no space must be added.
@@ -270,230 +583,10 @@ public class ConnectFour implements Board, Cloneable {
         return b.toString();
     }
 
-    /**
-     * Checks if game has no winner
-     *
-     * @return true if its a tie
-     */
-    private boolean isTie() {
-        for (int col = 0; col < COLS; col++) {
-            if (currBoard[ROWS - 1][col] == null) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Generates game tree of current board.
-     *
-     * @param current Current board.
-     * @param depth Depth to generate tree for.
-     * @return The generated game tree
-     */
-    private ConnectFour[] generateGameTree(ConnectFour current, int depth) {
-        ConnectFour[] gameTree = new ConnectFour[7];
-        boolean machineDraw;
-
-        for (int i = 0; i < depth; i++) {
-
-            //detect if generated move is made by machine or human
-            machineDraw = isMachineDraw(depth);
-            current.switchPlayer(machineDraw);
-
-            for (int col = 0; col < COLS; col++) {
-                ConnectFour newBoard = (ConnectFour) current.move(col + 1);
-                gameTree[col] = newBoard;
-
-                if (newBoard != null) {
-                    gameTree[col].gameTree = generateGameTree(gameTree[col],
-                            depth - 1);
-                }
-            }
-        }
-        return gameTree;
-    }
-
-    /**
-     * Checks if current draw is made by machine or not when generating the game
-     * tree and calculating values.
-     *
-     * @param depth Depth of the tree.
-     * @return true if current draw is made by machine.
-     */
-    private boolean isMachineDraw(int depth) {
-        if (level % 2 == 0) {
-            return depth % 2 == 0;
-        } else {
-            return depth % 2 == 1;
-        }
-    }
-
-    /**
-     * Calculates the board value of the given game tree including its depth.
-     *
-     * @param currentGameTree Tree to calculate value for.
-     * @param depth Current depth of tree.
-     */
-    private void calculateValues(ConnectFour[] currentGameTree, int depth) {
-        if (depth > 0) {
-            boolean machineDraw = isMachineDraw(depth);
-
-            for (int i = 0; i < COLS; i++) {
-
-                if (currentGameTree[i] != null) {
-                    calculateValues(currentGameTree[i].gameTree,
-                            depth - 1);
-                    currentGameTree[i].calculateBoardValue(!machineDraw);
-                }
-            }
-        }
-    }
-
-    /**
-     * Check if there are new groups for all group-types
-     *
-     * @param checker Model.Checker to search groups for
-     */
-    private void groupSearch(Checker checker) {
-        findDiagonalFallingMembers(checker);
-        findDiagonalRisingMembers(checker);
-        findHorizontalNeighbours(checker);
-        findVerticalNeighbours(checker);
-    }
-
-    /**
-     * Searches for the vertical neighbours of the given checker
-     *
-     * @param checker Model.Checker for search.
-     */
-    private void findVerticalNeighbours(Checker checker) {
-
-        // List of surrounding checkers.
-        List<Checker> surrounding = new ArrayList<>(2);
-        int actRow = checker.getPosition().getRow();
-        int actCol = checker.getPosition().getColumn();
-
-        // Calculate neighbour positions.
-        Checker underneath = getCheckerByPosition(new Coordinates2D(
-                actRow - 1, actCol));
-
-        Checker above = getCheckerByPosition(new Coordinates2D(
-                actRow + 1, actCol));
-
-        // Add checker underneath if possible.
-        if (isValidNeighbour(underneath, checker)) {
-            surrounding.add(underneath);
-        }
-
-        // Add checker above if possible.
-        if (isValidNeighbour(above, checker)) {
-            surrounding.add(above);
-        }
-
-        groups.check(checker, surrounding, GroupType.VERTICAL);
-    }
-
-    /**
-     * Searches for the right and left neighbours of the given checker.
-     *
-     * @param checker Model.Checker for search.
-     */
-    private void findHorizontalNeighbours(Checker checker) {
-
-        // List of surrounding checkers.
-        List<Checker> surrounding = new ArrayList<>(2);
-        int actRow = checker.getPosition().getRow();
-        int actCol = checker.getPosition().getColumn();
-
-        // Calculate neighbour positions.
-        Checker left = getCheckerByPosition(new Coordinates2D(
-                actRow, actCol - 1));
-
-        Checker right = getCheckerByPosition(new Coordinates2D(
-                actRow, actCol + 1));
-
-        // Add left checker if possible.
-        if (isValidNeighbour(left, checker)) {
-            surrounding.add(left);
-        }
-
-        // Add right checker if possible.
-        if (isValidNeighbour(right, checker)) {
-            surrounding.add(right);
-        }
-
-        groups.check(checker, surrounding, GroupType.HORIZONTAL);
-    }
-
-    /**
-     * Searches for the neighbours on a rising diagonal through the checker
-     *
-     * @param checker Model.Checker for search.
-     */
-    private void findDiagonalRisingMembers(Checker checker) {
-
-        // List of surrounding checkers.
-        List<Checker> surrounding = new ArrayList<>(2);
-        int actRow = checker.getPosition().getRow();
-        int actCol = checker.getPosition().getColumn();
-
-        // Calculate neighbour positions.
-        Checker topRight = getCheckerByPosition(new Coordinates2D(
-                actRow + 1, actCol + 1));
-
-        Checker bottomLeft = getCheckerByPosition(new Coordinates2D(
-                actRow - 1, actCol - 1));
-
-        // Add checker from the top right if possible.
-        if (isValidNeighbour(topRight, checker)) {
-            surrounding.add(topRight);
-        }
-
-        // Add left checker if possible.
-        if (isValidNeighbour(bottomLeft, checker)) {
-            surrounding.add(bottomLeft);
-        }
-
-        groups.check(checker, surrounding, GroupType.DIAGONALRISING);
-    }
-
-    /**
-     * Searches for the neighbours on a falling diagonal through the checker
-     *
-     * @param checker Model.Checker for search.
-     */
-    private void findDiagonalFallingMembers(Checker checker) {
-
-        // List of surrounding checkers.
-        List<Checker> surrounding = new ArrayList<>(2);
-        int actRow = checker.getPosition().getRow();
-        int actCol = checker.getPosition().getColumn();
-
-        // Calculate neighbour positions.
-        Checker topLeft = getCheckerByPosition(new Coordinates2D(
-                actRow + 1, actCol - 1));
-
-        Checker bottomRight = getCheckerByPosition(new Coordinates2D(
-                actRow - 1, actCol + 1));
-
-        // Add top left checker if possible.
-        if (isValidNeighbour(topLeft, checker)) {
-            surrounding.add(topLeft);
-        }
-
-        // Add bottom right checker if possible.
-        if (isValidNeighbour(bottomRight, checker)) {
-            surrounding.add(bottomRight);
-        }
-
-        groups.check(checker, surrounding, GroupType.DIAGONALFALLING);
-    }
-
 
     private boolean isValidNeighbour(Checker neighbour, Checker checker) {
         return neighbour != null
-                && neighbour.getOwner().equals(checker.getOwner());
+                && neighbour.getSide() == checker.getSide();
     }
 
     /**
@@ -506,151 +599,43 @@ public class ConnectFour implements Board, Cloneable {
         int row = position.getRow();
         int col = position.getColumn();
 
-        return row < currBoard.length
-                && col < currBoard[0].length
-                && row >= 0 && col >= 0;
+        return row < ROWS && col < COLS && row >= 0 && col >= 0;
     }
 
     private Checker getCheckerByPosition(Coordinates2D position) {
         if (isValidPosition(position)) {
-            return currBoard[position.getRow()][position.getColumn()];
+            return columns[position.getColumn()][position.getRow()];
         }
         return null;
     }
 
-
     /**
-     * Calculates Q value by using the formula given in the task-specification.
+     * Gets the number of heap bytes the current thread allocated so far, if
+     * the JVM can measure it.
      *
-     * @return Q value for number of Checkers in board.
+     * @return Allocated bytes or 0.
      */
-    private int getCheckerValue() {
-        int valueP1 = 0;
-        int valueP2 = 0;
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
 
-        // Counting checkers of each player for each column.
-        for (int i = 1; i < COLS - 1; i++) {
-
-            int checkersP1 = 0; //Number of checkers in column for player 1.
-            int checkersP2 = 0;
-
-            for (int row = 0; row < ROWS; row++) {
-                Checker currChecker = currBoard[row][i];
-                if (currChecker != null) {
-                    Player owner = currChecker.getOwner();
-
-                    //To whom does checker belong to?
-                    if (owner.equals(players[0])) {
-                        checkersP1 += 1;
-                    } else if (owner.equals(players[1])) {
-                        checkersP2 += 1;
-                    }
-                }
-            }
-
-            // Determine the value that the number of checkers in a certain row
-            // have to be multiplied.
-            int multiplicator = i;
-
-            if (i == 4) {
-                multiplicator = 2;
-            }
-
-            if (i == 5) {
-                multiplicator = 1;
-            }
-
-            valueP1 += multiplicator * checkersP1;
-            valueP2 += multiplicator * checkersP2;
-        }
-
-        //Detect which player is the bot.
-        if (players[0].isMachine()) {
-            return valueP1 - valueP2;
-        } else {
-            return valueP2 - valueP1;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getCurrentThreadAllocatedBytes();
         }
+        return 0;
     }
 
     /**
-     * Calculates the board value of current board by summing up checker- and
-     * group-value and the maximum or minimum of board values in game tree
-     * of current board
+     * Gets the transposition table, creating one of default size if none
+     * was set.
      *
-     * @param addMaximumToValue Parameter to determine if max or min should
-     *                          be added to value of this board
+     * @return The table of this game.
      */
-    private void calculateBoardValue(boolean addMaximumToValue) {
-        boardValue = getCheckerValue() + groups.calculateGroupValue();
-
-        if (!isGameTreeNull()) {
-            int maxMin;
-
-            if (addMaximumToValue) {
-                // If machine move, get node with highest board value of tree.
-                maxMin = getIndexOfMaximum(gameTree);
-            } else {
-                // Else with lowest (human move).
-                maxMin = getIndexOfMinimum(gameTree);
-            }
-
-            // Add value to current board.
-            boardValue += gameTree[maxMin].boardValue;
+    private TranspositionTable getTable() {
+        if (table == null) {
+            table = new TranspositionTable(DEFAULT_TABLE_BYTES);
         }
-    }
-
-    /**
-     * Gets the index of the board in tree with the maximum board value.
-     *
-     * @param tree Game tree to check.
-     * @return Index of the max board value.
-     */
-    private int getIndexOfMaximum(ConnectFour[] tree) {
-        int largest = COLS - 1;
-
-        for (int i = COLS - 2; i >= 0; i--) {
-            if (tree[i] != null) {
-
-                if (tree[largest] == null
-                        || tree[largest].boardValue <= tree[i].boardValue) {
-
-                    largest = i;
-                }
-            }
-        }
-        return largest;
-    }
-
-
-    /**
-     * Gets the index of the board in tree with the minimum board value.
-     *
-     * @param tree Game tree to check.
-     * @return Index of the min board value.
-     */
-    private int getIndexOfMinimum(ConnectFour[] tree) {
-        int smallest = COLS - 1;
-
-        for (int i = COLS - 2; i >= 0; i--) {
-            if (tree[i] != null) {
-
-                if (tree[smallest] == null
-                        || tree[smallest].boardValue >= tree[i].boardValue) {
-                    smallest = i;
-                }
-            }
-        }
-        return smallest;
-    }
-
-    private boolean isGameTreeNull() {
-        for (int i = 0; i < gameTree.length; i++) {
-            if (gameTree[i] != null) {
-                return false;
-            }
-        }
-
-        return true;
+        return table;
     }
 
     /**
@@ -661,26 +646,14 @@ public class ConnectFour implements Board, Cloneable {
      * @param toMachine Switch to machine or not.
      */
     private void switchPlayer(boolean toMachine) {
+        byte humanSide = (byte) (1 - machineSide);
 
-        if (players.length > 0) {
-            Player machine;
-            Player human;
-
-            if (players[0].isMachine()) {
-                machine = players[0];
-                human = players[1];
-            } else {
-                machine = players[1];
-                human = players[0];
-            }
-
-            if (toMachine) {
-                currentPlayer = machine;
-                lastPlayer = human;
-            } else {
-                currentPlayer = human;
-                lastPlayer = machine;
-            }
+        if (toMachine) {
+            currentSide = machineSide;
+            lastSide = humanSide;
+        } else {
+            currentSide = humanSide;
+            lastSide = machineSide;
         }
     }
-}
\ No newline at end of file
+}
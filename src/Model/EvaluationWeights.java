@@ -0,0 +1,200 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * Weights of the board evaluation of the machine. The static value of a
+ * board is the sum of every weight multiplied with its feature, see
+ * {@link ConnectFour#getEvaluationFeatures()}. Instances are immutable.
+ */
+public final class EvaluationWeights {
+
+    /**
+     * Index of the constant that is added to every board value.
+     */
+    public static final int CONSTANT = 0;
+
+    /**
+     * Index of the weight of a machine group with two members.
+     */
+    public static final int MACHINE_TWO = 1;
+
+    /**
+     * Index of the weight of a machine group with three members.
+     */
+    public static final int MACHINE_THREE = 2;
+
+    /**
+     * Index of the weight of a machine group with four members.
+     */
+    public static final int MACHINE_FOUR = 3;
+
+    /**
+     * Index of the penalty for a human group with two members.
+     */
+    public static final int HUMAN_TWO = 4;
+
+    /**
+     * Index of the penalty for a human group with three members.
+     */
+    public static final int HUMAN_THREE = 5;
+
+    /**
+     * Index of the penalty for a human group with four members.
+     */
+    public static final int HUMAN_FOUR = 6;
+
+    /**
+     * Index of the bonus for a move with which the machine wins at once.
+     */
+    public static final int BOT_WIN = 7;
+
+    /**
+     * Index of the weight of a checker in the first column. The weights of
+     * the other columns follow.
+     */
+    public static final int FIRST_COLUMN = 8;
+
+    /**
+     * Number of weights.
+     */
+    public static final int SIZE = FIRST_COLUMN + Board.COLS;
+
+    /**
+     * The weights of the task specification.
+     */
+    public static final EvaluationWeights DEFAULT = new EvaluationWeights(
+            new int[] {50, 1, 4, 5000, 1, 4, 500000, 500000,
+                0, 1, 2, 3, 2, 1, 0});
+
+    private static final String[] NAMES = {"constant", "machineTwo",
+        "machineThree", "machineFour", "humanTwo", "humanThree", "humanFour",
+        "botWin", "column1", "column2", "column3", "column4", "column5",
+        "column6", "column7"};
+
+    private final int[] values;
+    private final long key;
+
+    /**
+     * Creates weights from their values in index order.
+     *
+     * @param values Values of all {@link #SIZE} weights.
+     * @throws IllegalArgumentException The number of values is wrong.
+     */
+    public EvaluationWeights(int[] values) {
+        if (values.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE
+                    + " weights, got " + values.length);
+        }
+        this.values = values.clone();
+
+        // Mix all weights into a key, so values calculated with other
+        // weights are not mistaken for own ones.
+        long mixed = 0x9E3779B97F4A7C15L;
+        for (int value : values) {
+            mixed = (mixed ^ value) * 0xBF58476D1CE4E5B9L;
+            mixed ^= mixed >>> 31;
+        }
+        key = mixed;
+    }
+
+    /**
+     * Gets a weight.
+     *
+     * @param index Index of the weight.
+     * @return Value of the weight.
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Gets the weight of a checker in a column.
+     *
+     * @param col Array index of the column.
+     * @return Value of the column weight.
+     */
+    public int getColumnWeight(int col) {
+        return values[FIRST_COLUMN + col];
+    }
+
+    /**
+     * Creates a copy of these weights with one weight changed.
+     *
+     * @param index Index of the weight to change.
+     * @param value New value of the weight.
+     * @return The changed weights.
+     */
+    public EvaluationWeights with(int index, int value) {
+        int[] changed = values.clone();
+        changed[index] = value;
+        return new EvaluationWeights(changed);
+    }
+
+    /**
+     * Calculates a static board value from the features of a board.
+     *
+     * @param features Features in weight index order.
+     * @return Sum of every weight multiplied with its feature.
+     */
+    public int evaluate(int[] features) {
+        int value = 0;
+
+        for (int i = 0; i < SIZE; i++) {
+            value += values[i] * features[i];
+        }
+        return value;
+    }
+
+    /**
+     * Gets a key that differs for different weights with high probability.
+     *
+     * @return Hash of all weights.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the name of a weight.
+     *
+     * @param index Index of the weight.
+     * @return Name of the weight.
+     */
+    public static String getName(int index) {
+        return NAMES[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EvaluationWeights
+                && Arrays.equals(values, ((EvaluationWeights) o).values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+
+        for (int i = 0; i < SIZE; i++) {
+            if (i > 0) {
+                b.append(", ");
+            }
+            b.append(NAMES[i]).append('=').append(values[i]);
+        }
+        return b.toString();
+    }
+}
@@ -0,0 +1,254 @@
+package Model;
+
+/**
+ * Static evaluation of positions from the machine's point of view. A group
+ * is a line of two, three or four checkers of one side that is not part of a
+ * longer line in the same direction. Longer lines count as a group of four.
+ *
+ * The material and the vertical groups lie within single columns and are
+ * looked up in the {@link ColumnTable}, the other directions are counted on
+ * the whole bitboards.
+ */
+public final class Evaluator {
+
+    /**
+     * Name of the system property that enables the vectorized batch
+     * evaluation if set to {@code true}. On Java 17 it is slower than the
+     * scalar one, see {@code Engine.EvaluationBenchmark}.
+     */
+    public static final String VECTOR_PROPERTY = "connectfour.vector";
+
+    /**
+     * Length batch arrays need beyond the number of positions, so that the
+     * vectorized evaluation can read whole vectors.
+     */
+    public static final int BATCH_PADDING = 8;
+
+    private static final long[] COLUMN_MASKS = new long[Board.COLS];
+
+    static {
+        for (int col = 0; col < Board.COLS; col++) {
+            COLUMN_MASKS[col] = Position.columnMask(col);
+        }
+    }
+
+    private static final BatchEvaluator BATCH = loadBatchEvaluator();
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private Evaluator() {
+    }
+
+    /**
+     * Calculates the static value of a position. The columns must be
+     * filled from the bottom up, as in every reachable position.
+     *
+     * @param machine Bitboard of the machine's checkers.
+     * @param human Bitboard of the human's checkers.
+     * @param weights Weights of the evaluation.
+     * @return Static board value, larger is better for the machine.
+     */
+    public static int evaluate(long machine, long human,
+                               EvaluationWeights weights) {
+        int value = weights.get(EvaluationWeights.CONSTANT);
+
+        long codes = ColumnTable.encode(machine, human);
+        long columns = 0;
+
+        for (int col = 0; col < Board.COLS; col++) {
+            long entry = ColumnTable.get(codes, col);
+            columns += entry;
+            value += weights.getColumnWeight(col)
+                    * ColumnTable.getMaterial(entry);
+        }
+
+        int machineTwo = ColumnTable.getGroups(columns,
+                EvaluationWeights.MACHINE_TWO);
+        int machineThree = ColumnTable.getGroups(columns,
+                EvaluationWeights.MACHINE_THREE);
+        int machineFour = ColumnTable.getGroups(columns,
+                EvaluationWeights.MACHINE_FOUR);
+        int humanTwo = ColumnTable.getGroups(columns,
+                EvaluationWeights.HUMAN_TWO);
+        int humanThree = ColumnTable.getGroups(columns,
+                EvaluationWeights.HUMAN_THREE);
+        int humanFour = ColumnTable.getGroups(columns,
+                EvaluationWeights.HUMAN_FOUR);
+
+        // The vertical direction is in the table.
+        for (int i = 1; i < Position.DIRECTIONS.length; i++) {
+            int direction = Position.DIRECTIONS[i];
+            long two = startsOfLines(machine, direction, 2);
+            long three = two & (machine >>> (2 * direction));
+            long four = three & (machine >>> (3 * direction));
+
+            machineTwo += Long.bitCount(two) - Long.bitCount(three);
+            machineThree += Long.bitCount(three) - Long.bitCount(four);
+            machineFour += Long.bitCount(four);
+
+            two = startsOfLines(human, direction, 2);
+            three = two & (human >>> (2 * direction));
+            four = three & (human >>> (3 * direction));
+
+            humanTwo += Long.bitCount(two) - Long.bitCount(three);
+            humanThree += Long.bitCount(three) - Long.bitCount(four);
+            humanFour += Long.bitCount(four);
+        }
+
+        value += weights.get(EvaluationWeights.MACHINE_TWO) * machineTwo;
+        value += weights.get(EvaluationWeights.MACHINE_THREE) * machineThree;
+        value += weights.get(EvaluationWeights.MACHINE_FOUR) * machineFour;
+        value -= weights.get(EvaluationWeights.HUMAN_TWO) * humanTwo;
+        value -= weights.get(EvaluationWeights.HUMAN_THREE) * humanThree;
+        value -= weights.get(EvaluationWeights.HUMAN_FOUR) * humanFour;
+        return value;
+    }
+
+    /**
+     * Calculates the static values of many positions at once. If it is
+     * enabled, the JVM runs with the {@code jdk.incubator.vector} module and
+     * the vectorized evaluation is on the class path, the positions are
+     * evaluated in SIMD lanes, otherwise one by one.
+     *
+     * @param machine Bitboards of the machine's checkers.
+     * @param human Bitboards of the human's checkers.
+     * @param count Number of positions, the first ones of the arrays.
+     * @param weights Weights of the evaluation.
+     * @param values Receives the static board values.
+     */
+    public static void evaluate(long[] machine, long[] human, int count,
+                                EvaluationWeights weights, int[] values) {
+        BATCH.evaluate(machine, human, count, weights, values);
+    }
+
+    /**
+     * Calculates the static values of many positions one by one. This is
+     * the reference for the vectorized evaluation.
+     *
+     * @param machine Bitboards of the machine's checkers.
+     * @param human Bitboards of the human's checkers.
+     * @param count Number of positions, the first ones of the arrays.
+     * @param weights Weights of the evaluation.
+     * @param values Receives the static board values.
+     */
+    public static void evaluateScalar(long[] machine, long[] human,
+                                      int count, EvaluationWeights weights,
+                                      int[] values) {
+        for (int i = 0; i < count; i++) {
+            values[i] = evaluate(machine[i], human[i], weights);
+        }
+    }
+
+    /**
+     * Checks if batches are evaluated in SIMD lanes.
+     *
+     * @return True if the vectorized evaluation is used.
+     */
+    public static boolean isVectorized() {
+        return !(BATCH instanceof ScalarBatch);
+    }
+
+    /**
+     * Loads the vectorized batch evaluation if it is enabled and
+     * available.
+     *
+     * @return The batch evaluation to use.
+     */
+    private static BatchEvaluator loadBatchEvaluator() {
+        if (Boolean.getBoolean(VECTOR_PROPERTY)
+                && ModuleLayer.boot().findModule("jdk.incubator.vector")
+                .isPresent()) {
+            try {
+                return (BatchEvaluator) Class.forName("Model.VectorEvaluator")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError ex) {
+                // Not compiled in, the scalar evaluation works everywhere.
+            }
+        }
+        return new ScalarBatch();
+    }
+
+    /**
+     * Gets the features of a position, so that the static value is
+     * {@link EvaluationWeights#evaluate(int[])} of them.
+     *
+     * @param machine Bitboard of the machine's checkers.
+     * @param human Bitboard of the human's checkers.
+     * @return Features in weight index order.
+     */
+    public static int[] features(long machine, long human) {
+        int[] features = new int[EvaluationWeights.SIZE];
+        features[EvaluationWeights.CONSTANT] = 1;
+
+        for (int direction : Position.DIRECTIONS) {
+            for (int size = 2; size <= Board.CONNECT; size++) {
+                int machineGroups = countGroups(machine, direction, size);
+                int humanGroups = countGroups(human, direction, size);
+
+                features[EvaluationWeights.MACHINE_TWO + size - 2]
+                        += machineGroups;
+                features[EvaluationWeights.HUMAN_TWO + size - 2]
+                        -= humanGroups;
+            }
+        }
+
+        for (int col = 0; col < Board.COLS; col++) {
+            features[EvaluationWeights.FIRST_COLUMN + col]
+                    = Long.bitCount(machine & COLUMN_MASKS[col])
+                    - Long.bitCount(human & COLUMN_MASKS[col]);
+        }
+        return features;
+    }
+
+    /**
+     * Counts the groups of one size in one direction. Lines longer than
+     * {@code CONNECT} count as a group of {@code CONNECT}.
+     *
+     * @param board Bitboard of one side.
+     * @param direction Bit shift of the direction.
+     * @param size Number of members.
+     * @return Number of groups.
+     */
+    private static int countGroups(long board, int direction, int size) {
+        int atLeast = Long.bitCount(startsOfLines(board, direction, size));
+
+        if (size == Board.CONNECT) {
+            return atLeast;
+        }
+        return atLeast - Long.bitCount(startsOfLines(board, direction,
+                size + 1));
+    }
+
+    /**
+     * Gets the first checker of every line with at least the given length.
+     *
+     * @param board Bitboard of one side.
+     * @param direction Bit shift of the direction.
+     * @param length Minimum number of checkers in the line.
+     * @return Bitboard with the first checker of each such line.
+     */
+    private static long startsOfLines(long board, int direction, int length) {
+        long starts = board & ~(board << direction);
+
+        for (int i = 1; i < length; i++) {
+            starts &= board >>> (i * direction);
+        }
+        return starts;
+    }
+
+    /**
+     * Batch evaluation one position after the other.
+     */
+    private static final class ScalarBatch implements BatchEvaluator {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void evaluate(long[] machine, long[] human, int count,
+                             EvaluationWeights weights, int[] values) {
+            evaluateScalar(machine, human, count, weights, values);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of games, read with {@link JournalReader}. Games are
+ * numbered from 1 in the order they are appended.
+ *
+ * The journal is a directory of segment files named by the hexadecimal id
+ * of their first game. A segment starts with the magic number {@code C4JL},
+ * a version byte and the id of its first game, followed by the games as
+ * described in {@link GameRecord}. Each segment has an index file with the
+ * offset of every game as int, so that a game is found by its id without
+ * reading the segment. A segment ends at its size limit, and every opened
+ * journal starts a new one; a record cut off by a crash is ignored. Only
+ * one journal may write to a directory at a time.
+ *
+ * Games are collected in a buffer, and one thread writes all games of the
+ * buffer at once while the next ones are collected in another buffer
+ * (group commit). The more games arrive, the larger the batches get.
+ */
+public final class GameJournal implements Closeable {
+
+    /**
+     * Default size limit of a segment.
+     */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    /**
+     * First four bytes of a segment.
+     */
+    static final int MAGIC = 0x43344A4C;
+
+    /**
+     * Format version of a segment.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Bytes before the first game of a segment: magic number, version and
+     * id of the first game.
+     */
+    static final int HEADER_BYTES = 4 + 1 + 8;
+
+    /**
+     * File name extension of a segment.
+     */
+    static final String SEGMENT_SUFFIX = ".c4j";
+
+    /**
+     * File name extension of an index.
+     */
+    static final String INDEX_SUFFIX = ".c4i";
+
+    private static final int BATCH_BYTES = 1 << 20;
+    private static final int INDEX_BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Largest record: length, time and level as varints, the flags and a
+     * move for every slot.
+     */
+    private static final int MAX_RECORD_BYTES = 2 + 10 + 1 + 5
+            + Board.ROWS * Board.COLS;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean force;
+    private final Thread committer;
+    private final ByteBuffer indexBuffer
+            = ByteBuffer.allocateDirect(INDEX_BUFFER_BYTES);
+    private ByteBuffer filling = ByteBuffer.allocateDirect(BATCH_BYTES);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(BATCH_BYTES);
+    private long fillingFirstId;
+    private long appendedId;
+    private long committedId;
+    private boolean closing = false;
+    private IOException failure;
+    private FileChannel segment;
+    private FileChannel index;
+    private long segmentSize;
+
+    /**
+     * Opens a journal with segments of the default size that are not forced
+     * to the storage device.
+     *
+     * @param directory Directory of the journal, created if it does not
+     *                  exist.
+     * @throws IOException Reading the existing journal failed.
+     */
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES, false);
+    }
+
+    /**
+     * Opens a journal. New games get the ids after the last game in it.
+     *
+     * @param directory Directory of the journal, created if it does not
+     *                  exist.
+     * @param segmentBytes Size limit of a segment, at most 1 GiB.
+     * @param force If true, every batch is forced to the storage device
+     *              before it counts as committed.
+     * @throws IOException Reading the existing journal failed.
+     * @throws IllegalArgumentException The size limit is out of range.
+     */
+    public GameJournal(Path directory, long segmentBytes, boolean force)
+            throws IOException {
+        if (segmentBytes < HEADER_BYTES + BATCH_BYTES
+                || segmentBytes > 1L << 30) {
+            throw new IllegalArgumentException("Invalid segment size: "
+                    + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.force = force;
+
+        Files.createDirectories(directory);
+        try (JournalReader reader = new JournalReader(directory)) {
+            appendedId = reader.getNextId() - 1;
+        }
+        committedId = appendedId;
+        fillingFirstId = appendedId + 1;
+
+        committer = new Thread(this::commit, "journal-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Appends a game. It is written with the next batch; {@link #sync()}
+     * waits for that.
+     *
+     * @param time Time the game ended in milliseconds since the epoch.
+     * @param level Level of the machine.
+     * @param machineFirst True if the machine moved first.
+     * @param result Result as defined in {@link GameRecord}.
+     * @param moves Columns of the moves as digits from 1 to
+     *              {@link Board#COLS}.
+     * @return Id of the game.
+     * @throws IllegalArgumentException A value is out of range.
+     * @throws IllegalStateException The journal is closed.
+     * @throws UncheckedIOException Writing an earlier batch failed.
+     */
+    public long append(long time, int level, boolean machineFirst,
+                       int result, CharSequence moves) {
+        if (time < 0 || level < 0 || result < GameRecord.UNFINISHED
+                || result > GameRecord.DRAW
+                || moves.length() > Board.ROWS * Board.COLS) {
+            throw new IllegalArgumentException("Invalid game");
+        }
+        for (int i = 0; i < moves.length(); i++) {
+            int col = moves.charAt(i) - '0';
+            if (col < 1 || col > Board.COLS) {
+                throw new IllegalArgumentException("Invalid column: "
+                        + moves.charAt(i));
+            }
+        }
+
+        int length = GameRecord.varintBytes(time) + 1
+                + GameRecord.varintBytes(level) + moves.length();
+
+        synchronized (this) {
+            while (filling.remaining() < MAX_RECORD_BYTES) {
+                // Wait until the committer takes the full buffer.
+                checkOpen();
+                notifyAll();
+                await();
+            }
+            checkOpen();
+
+            boolean first = filling.position() == 0;
+            putVarint(filling, length);
+            putVarint(filling, time);
+            filling.put((byte) (result
+                    | (machineFirst ? GameRecord.MACHINE_FIRST : 0)));
+            putVarint(filling, level);
+            for (int i = 0; i < moves.length(); i++) {
+                filling.put((byte) (moves.charAt(i) - '0'));
+            }
+
+            if (first) {
+                notifyAll();
+            }
+            return ++appendedId;
+        }
+    }
+
+    /**
+     * Waits until every game appended so far is written, and forced to the
+     * device if the journal forces its batches.
+     *
+     * @throws IOException Writing failed or the thread was interrupted.
+     */
+    public void sync() throws IOException {
+        synchronized (this) {
+            long target = appendedId;
+
+            while (committedId < target && failure == null) {
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining games and closes the journal.
+     *
+     * @throws IOException Writing or closing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            notifyAll();
+        }
+
+        try {
+            committer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            closeSegment();
+        } catch (IOException ex) {
+            if (failure == null) {
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes batches until the journal is closed and all games are written.
+     * Runs in the committer thread.
+     */
+    private void commit() {
+        try {
+            while (true) {
+                ByteBuffer batch;
+                long firstId;
+                long lastId;
+
+                synchronized (this) {
+                    while (filling.position() == 0 && !closing) {
+                        wait();
+                    }
+                    if (filling.position() == 0) {
+                        return;
+                    }
+                    batch = filling;
+                    filling = writing;
+                    writing = batch;
+                    firstId = fillingFirstId;
+                    lastId = appendedId;
+                    fillingFirstId = lastId + 1;
+
+                    // Appenders may wait for an empty buffer.
+                    notifyAll();
+                }
+
+                batch.flip();
+                write(batch, firstId);
+                batch.clear();
+
+                synchronized (this) {
+                    committedId = lastId;
+                    notifyAll();
+                }
+            }
+        } catch (IOException ex) {
+            fail(ex);
+        } catch (InterruptedException ex) {
+            fail(new InterruptedIOException());
+        }
+    }
+
+    /**
+     * Writes a batch into the current segment or a new one, together with
+     * the index entries of its games.
+     *
+     * @param batch Records of the batch.
+     * @param firstId Id of the first game of the batch.
+     * @throws IOException Writing failed.
+     */
+    private void write(ByteBuffer batch, long firstId) throws IOException {
+        if (segment != null && segmentSize + batch.remaining()
+                > segmentBytes) {
+            closeSegment();
+        }
+        if (segment == null) {
+            openSegment(firstId);
+        }
+
+        long start = segmentSize;
+        segmentSize += batch.remaining();
+        writeFully(segment, batch);
+        if (force) {
+            segment.force(false);
+        }
+
+        // The index follows the games, so it never points past them.
+        int offset = 0;
+        while (offset < batch.limit()) {
+            if (!indexBuffer.hasRemaining()) {
+                indexBuffer.flip();
+                writeFully(index, indexBuffer);
+                indexBuffer.clear();
+            }
+            indexBuffer.putInt((int) (start + offset));
+
+            long length = GameRecord.readVarint(batch, offset);
+            offset += GameRecord.varintBytes(length) + (int) length;
+        }
+        indexBuffer.flip();
+        writeFully(index, indexBuffer);
+        indexBuffer.clear();
+    }
+
+    /**
+     * Creates a segment and its index.
+     *
+     * @param firstId Id of the first game of the segment.
+     * @throws IOException Creating failed.
+     */
+    private void openSegment(long firstId) throws IOException {
+        String name = JournalReader.fileName(firstId);
+
+        // A segment of the same name has no games, or the ids would differ.
+        segment = FileChannel.open(directory.resolve(name + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        index = FileChannel.open(directory.resolve(name + INDEX_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).put((byte) VERSION).putLong(firstId);
+        header.flip();
+        writeFully(segment, header);
+        segmentSize = HEADER_BYTES;
+    }
+
+    /**
+     * Closes the current segment and its index, if there is one.
+     *
+     * @throws IOException Closing failed.
+     */
+    private void closeSegment() throws IOException {
+        if (segment == null) {
+            return;
+        }
+        try {
+            if (force) {
+                segment.force(true);
+            }
+            segment.close();
+        } finally {
+            index.close();
+            segment = null;
+            index = null;
+        }
+    }
+
+    /**
+     * Records a failure of the committer and wakes up every waiting thread.
+     *
+     * @param ex The failure.
+     */
+    private synchronized void fail(IOException ex) {
+        failure = ex;
+        notifyAll();
+    }
+
+    /**
+     * Checks that games can be appended. Must hold the lock.
+     *
+     * @throws IllegalStateException The journal is closed.
+     * @throws UncheckedIOException Writing an earlier batch failed.
+     */
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        if (closing) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    /**
+     * Waits for a notification. Must hold the lock.
+     *
+     * @throws UncheckedIOException The thread was interrupted.
+     */
+    private void await() {
+        try {
+            wait();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException());
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer completely.
+     *
+     * @param channel The channel.
+     * @param buffer The buffer.
+     * @throws IOException Writing failed.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Appends an unsigned varint, seven bits per byte, low bits first.
+     *
+     * @param buffer The buffer.
+     * @param value Value, not negative.
+     */
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
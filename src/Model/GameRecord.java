@@ -0,0 +1,209 @@
+package Model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A game of a {@link GameJournal}, read in place from a mapped segment. The
+ * moves are not copied out of the segment until {@link #getMoves()} is
+ * called.
+ *
+ * A record is the length of the rest of the record and then the time the
+ * game ended in milliseconds since the epoch, both as varints, a flag byte
+ * with the result in the lowest two bits and the side of the machine in the
+ * third, the level as varint and one byte per move with its column from 1
+ * to {@link Board#COLS}. The id of a game is not stored, it follows from
+ * the position of the record in the journal.
+ */
+public final class GameRecord {
+
+    /**
+     * Result of a game that was not finished.
+     */
+    public static final int UNFINISHED = 0;
+
+    /**
+     * Result of a game the first player won.
+     */
+    public static final int FIRST_WON = 1;
+
+    /**
+     * Result of a game the second player won.
+     */
+    public static final int SECOND_WON = 2;
+
+    /**
+     * Result of a game that ended with a full board.
+     */
+    public static final int DRAW = 3;
+
+    /**
+     * Flag of a game the machine moved first in.
+     */
+    static final int MACHINE_FIRST = 4;
+
+    private ByteBuffer buffer;
+    private long id;
+    private long time;
+    private int flags;
+    private int level;
+    private int movesOffset;
+    private int moveCount;
+
+    /**
+     * Creates an empty record to read games into.
+     */
+    GameRecord() {
+    }
+
+    /**
+     * Reads the game at an offset of a segment. The record must be
+     * complete.
+     *
+     * @param buffer The mapped segment.
+     * @param offset Offset of the record.
+     * @param id Id of the game.
+     * @return This record.
+     */
+    GameRecord read(ByteBuffer buffer, int offset, long id) {
+        this.buffer = buffer;
+        this.id = id;
+
+        long length = readVarint(buffer, offset);
+        int position = offset + varintBytes(length);
+        int end = position + (int) length;
+
+        time = readVarint(buffer, position);
+        position += varintBytes(time);
+        flags = buffer.get(position++);
+        level = (int) readVarint(buffer, position);
+        position += varintBytes(level);
+
+        movesOffset = position;
+        moveCount = end - position;
+        return this;
+    }
+
+    /**
+     * Gets the id of the game.
+     *
+     * @return Id, assigned by the journal in the order of the games.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the time the game was recorded.
+     *
+     * @return Milliseconds since the epoch.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the result of the game.
+     *
+     * @return {@link #UNFINISHED}, {@link #FIRST_WON}, {@link #SECOND_WON}
+     *         or {@link #DRAW}.
+     */
+    public int getResult() {
+        return flags & 3;
+    }
+
+    /**
+     * Checks if the machine moved first.
+     *
+     * @return True if the machine was the first player.
+     */
+    public boolean isMachineFirst() {
+        return (flags & MACHINE_FIRST) != 0;
+    }
+
+    /**
+     * Gets the level of the machine.
+     *
+     * @return The level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the number of moves.
+     *
+     * @return Number of moves of both players.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets a move.
+     *
+     * @param index Number of the move, from 0.
+     * @return Column of the move from 1 to {@link Board#COLS}.
+     * @throws IndexOutOfBoundsException There is no such move.
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Invalid move: " + index);
+        }
+        return buffer.get(movesOffset + index);
+    }
+
+    /**
+     * Gets the moves as move string, as read by
+     * {@link ConnectFour#fromMoves(String)}.
+     *
+     * @return Columns of the moves as digits.
+     */
+    public String getMoves() {
+        char[] moves = new char[moveCount];
+
+        for (int i = 0; i < moveCount; i++) {
+            moves[i] = (char) ('0' + buffer.get(movesOffset + i));
+        }
+        return new String(moves);
+    }
+
+    /**
+     * Reads a varint at an absolute offset, seven bits per byte, low bits
+     * first.
+     *
+     * @param buffer The buffer.
+     * @param offset Offset of the first byte.
+     * @return The value, or -1 if the varint runs past the limit.
+     */
+    static long readVarint(ByteBuffer buffer, int offset) {
+        long value = 0;
+        int shift = 0;
+
+        for (int i = offset; i < buffer.limit() && shift < 64; i++) {
+            int b = buffer.get(i);
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the length of a varint.
+     *
+     * @param value Value, not negative.
+     * @return Number of bytes.
+     */
+    static int varintBytes(long value) {
+        int bytes = 1;
+
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+}
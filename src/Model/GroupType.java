@@ -1,26 +0,0 @@
-package Model;
-
-/**
- * Enum with possible group-types.
- */
-public enum GroupType {
-    /**
-     * Model.Group with members aligned in a falling diagonal.
-     */
-    DIAGONALFALLING,
-
-    /**
-     * Model.Group with members aligned in a rising diagonal.
-     */
-    DIAGONALRISING,
-
-    /**
-     * Model.Group with members aligned vertical.
-     */
-    VERTICAL,
-
-    /**
-     * Model.Group with members aligned horizontal.
-     */
-    HORIZONTAL
-}
@@ -0,0 +1,269 @@
+package Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the games of a {@link GameJournal}. Every segment and its index are
+ * mapped into memory, and games are read in place. The reader sees the
+ * games that were written when it was opened.
+ *
+ * A game is found by its id with a binary search over the first ids of the
+ * segments and one entry of the index. Games that are missing in an index,
+ * because the writer stopped before it updated the index, are found by
+ * scanning the rest of the segment once when it is opened.
+ */
+public final class JournalReader implements Closeable {
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final long[] firstIds;
+    private final long nextId;
+
+    /**
+     * Opens a journal. A directory that does not exist is an empty
+     * journal.
+     *
+     * @param directory Directory of the journal.
+     * @throws IOException Reading failed or a segment is damaged.
+     */
+    public JournalReader(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                    directory, "*" + GameJournal.SEGMENT_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+        }
+        files.sort(null);
+
+        try {
+            for (Path file : files) {
+                // A segment without header was created by a writer that
+                // stopped at once, it has no games.
+                if (Files.size(file) >= GameJournal.HEADER_BYTES) {
+                    segments.add(new Segment(file));
+                }
+            }
+        } catch (IOException ex) {
+            segments.clear();
+            throw ex;
+        }
+
+        firstIds = new long[segments.size()];
+        for (int i = 0; i < firstIds.length; i++) {
+            firstIds[i] = segments.get(i).firstId;
+        }
+
+        Segment last = segments.isEmpty() ? null
+                : segments.get(segments.size() - 1);
+        nextId = last == null ? 1 : last.firstId + last.games;
+    }
+
+    /**
+     * Gets the file name of a segment or index without its extension.
+     *
+     * @param firstId Id of the first game of the segment.
+     * @return The id as sixteen hexadecimal digits, so that names sort by
+     *         id.
+     */
+    static String fileName(long firstId) {
+        return String.format("%016x", firstId);
+    }
+
+    /**
+     * Gets the number of games.
+     *
+     * @return Number of readable games.
+     */
+    public long getGames() {
+        long games = 0;
+
+        for (Segment segment : segments) {
+            games += segment.games;
+        }
+        return games;
+    }
+
+    /**
+     * Gets the id the next appended game gets.
+     *
+     * @return One more than the id of the last game, 1 for an empty
+     *         journal.
+     */
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Passes every game to an action, in the order of the ids. The same
+     * record object is reused for every game, so the action has to copy
+     * what it keeps.
+     *
+     * @param action Action for each game.
+     */
+    public void scan(Consumer<GameRecord> action) {
+        GameRecord record = new GameRecord();
+
+        for (Segment segment : segments) {
+            int offset = GameJournal.HEADER_BYTES;
+
+            for (long i = 0; i < segment.games; i++) {
+                action.accept(record.read(segment.data, offset,
+                        segment.firstId + i));
+                long length = GameRecord.readVarint(segment.data, offset);
+                offset += GameRecord.varintBytes(length) + (int) length;
+            }
+        }
+    }
+
+    /**
+     * Finds a game by its id.
+     *
+     * @param id Id of the game.
+     * @return The game or null if there is none with this id.
+     */
+    public GameRecord find(long id) {
+        int i = Arrays.binarySearch(firstIds, id);
+        if (i < 0) {
+            // The segment that starts before the id.
+            i = -i - 2;
+        }
+        if (i < 0) {
+            return null;
+        }
+
+        Segment segment = segments.get(i);
+        long number = id - segment.firstId;
+        if (number >= segment.games) {
+            return null;
+        }
+        return new GameRecord().read(segment.data, segment.offset(
+                (int) number), id);
+    }
+
+    /**
+     * Releases the segments. The mappings are freed by the garbage
+     * collector once no record refers to them.
+     */
+    @Override
+    public void close() {
+        segments.clear();
+    }
+
+    /**
+     * A mapped segment with its index.
+     */
+    private static final class Segment {
+
+        private final ByteBuffer data;
+        private final IntBuffer index;
+        private final long firstId;
+        private final int[] extra;
+        private final int games;
+
+        /**
+         * Maps a segment and its index, and scans the games the index is
+         * missing.
+         *
+         * @param file The segment.
+         * @throws IOException Reading failed or the file is no segment.
+         */
+        Segment(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file)) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size());
+            }
+            if (data.limit() < GameJournal.HEADER_BYTES
+                    || data.getInt(0) != GameJournal.MAGIC
+                    || data.get(4) != GameJournal.VERSION) {
+                throw new IOException("Not a journal segment: " + file);
+            }
+            firstId = data.getLong(5);
+
+            String name = file.getFileName().toString();
+            Path indexFile = file.resolveSibling(name.substring(0,
+                    name.length() - GameJournal.SEGMENT_SUFFIX.length())
+                    + GameJournal.INDEX_SUFFIX);
+            index = mapIndex(indexFile);
+
+            // Trust the index only up to the last complete game it points
+            // to.
+            int indexed = index.limit();
+            while (indexed > 0 && end(index.get(indexed - 1)) < 0) {
+                indexed--;
+            }
+
+            int offset = indexed == 0 ? GameJournal.HEADER_BYTES
+                    : end(index.get(indexed - 1));
+            List<Integer> found = new ArrayList<>();
+            while (end(offset) >= 0) {
+                found.add(offset);
+                offset = end(offset);
+            }
+
+            extra = new int[found.size()];
+            for (int i = 0; i < extra.length; i++) {
+                extra[i] = found.get(i);
+            }
+            games = indexed + extra.length;
+        }
+
+        /**
+         * Maps an index file.
+         *
+         * @param file The index.
+         * @return The offsets of the games, empty if there is no index.
+         * @throws IOException Reading failed.
+         */
+        private static IntBuffer mapIndex(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return IntBuffer.allocate(0);
+            }
+            try (FileChannel channel = FileChannel.open(file)) {
+                MappedByteBuffer mapped = channel.map(
+                        FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size() & ~3L);
+                return mapped.asIntBuffer();
+            }
+        }
+
+        /**
+         * Gets the offset of a game.
+         *
+         * @param number Number of the game within the segment.
+         * @return Offset of its record.
+         */
+        int offset(int number) {
+            int indexed = games - extra.length;
+            return number < indexed ? index.get(number)
+                    : extra[number - indexed];
+        }
+
+        /**
+         * Gets the end of a complete record.
+         *
+         * @param offset Offset of the record.
+         * @return Offset after it, or -1 if there is no complete record.
+         */
+        private int end(int offset) {
+            if (offset < GameJournal.HEADER_BYTES || offset >= data.limit()) {
+                return -1;
+            }
+            long length = GameRecord.readVarint(data, offset);
+            long end = offset + GameRecord.varintBytes(length) + length;
+            return length <= 0 || end > data.limit() ? -1 : (int) end;
+        }
+    }
+}
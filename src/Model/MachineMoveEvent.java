@@ -0,0 +1,55 @@
+package Model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one machine move, from the start of the search
+ * until the new board is created. Its phases are recorded as
+ * {@link SearchIterationEvent} and {@link MoveSelectionEvent}.
+ */
+@Name("connectfour.MachineMove")
+@Label("Machine Move")
+@Category({"Connect Four", "Search"})
+@Description("Search and execution of one machine move")
+final class MachineMoveEvent extends Event {
+
+    @Label("Level")
+    int level;
+
+    @Label("Depth")
+    @Description("Depth of the chosen move, smaller than the level if a"
+            + " budget ran out")
+    int depth;
+
+    @Label("Column")
+    int column;
+
+    @Label("Score")
+    int score;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Table Hits")
+    long tableHits;
+
+    @Label("Clones")
+    @Description("Position copies made by the move, counted in the"
+            + " search control")
+    long clones;
+
+    @Label("Allocated")
+    @DataAmount
+    @Description("Heap bytes allocated by the searching thread")
+    long allocatedBytes;
+
+    @Label("Peak Search Memory")
+    @DataAmount
+    @Description("Largest heap memory the search accounted at once")
+    long peakBytes;
+}
@@ -0,0 +1,26 @@
+package Model;
+
+/**
+ * The reference strategy: alpha-beta search of the board values with the
+ * level as depth, see {@link Search}.
+ */
+public final class MinimaxStrategy implements MoveStrategy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "minimax";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectColumn(PositionView position, SearchBudget budget) {
+        Search search = new Search(position, position.getSideToMove(),
+                budget.getWeights(), budget.getTable(), budget.getControl());
+        return search.searchRoot(budget.getLevel()) + 1;
+    }
+}
@@ -0,0 +1,480 @@
+package Model;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monte Carlo tree search of the machine move. Every playout descends the
+ * tree by the UCT rule, adds one board to it and finishes the game with
+ * quick moves on a compact position: a winning move if there is one,
+ * otherwise a move that blocks an immediate win of the opponent, otherwise
+ * a random one. The result is counted in every board on the way.
+ *
+ * Several threads share the tree. A thread counts its visit when it
+ * descends, before the playout has a result, so that the other threads
+ * see the line as lost for now and prefer other ones (virtual loss). The
+ * helper threads come from one pool with a thread less than there are
+ * processors, shared by all searches; helpers that find no free thread
+ * before the search ends do not play.
+ *
+ * The search is anytime: every playout improves the result, and the most
+ * visited column so far is stored in the {@link SearchControl} regularly.
+ * The search ends when the playouts of the level are done or a budget of
+ * the control runs out. The node budget counts playouts.
+ */
+final class MonteCarloSearch {
+
+    /**
+     * Number of playouts per level.
+     */
+    static final int PLAYOUTS_PER_LEVEL = 4096;
+
+    /**
+     * Exploration constant of UCT, the square root of two.
+     */
+    private static final double EXPLORATION = 1.4142135623730951;
+
+    /**
+     * Number of playouts of the controlling thread between two updates of
+     * the control.
+     */
+    private static final int SYNC_PLAYOUTS = 256;
+
+    /**
+     * Approximate heap bytes of expanding a node: its children and the
+     * array of them.
+     */
+    private static final long EXPANSION_BYTES = 16 + 4L * Board.COLS
+            + 32L * Board.COLS;
+
+    /**
+     * Score of a playout for the side that won it, in half points.
+     */
+    private static final int WIN = 2;
+
+    /**
+     * Score of a drawn playout for both sides, in half points.
+     */
+    private static final int DRAW = 1;
+
+    /**
+     * Helper threads of all searches. They are daemons, so that an idle
+     * pool does not keep the program alive.
+     */
+    private static final ExecutorService HELPERS = createHelpers();
+
+    private static final AtomicIntegerFieldUpdater<Node> VISITS
+            = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+    private static final AtomicIntegerFieldUpdater<Node> SCORE
+            = AtomicIntegerFieldUpdater.newUpdater(Node.class, "score");
+
+    private final PositionView root;
+    private final SearchControl control;
+    private final int threads;
+    private final Node tree;
+    private final LongAdder playouts = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean done = false;
+    private volatile boolean treeFull = false;
+
+    /**
+     * Creates a search. The position is not changed.
+     *
+     * @param position Position with the machine to move.
+     * @param control Control that counts playouts and can stop the search.
+     * @param threads Number of threads, at least 1.
+     */
+    MonteCarloSearch(PositionView position, SearchControl control,
+                     int threads) {
+        this.root = position;
+        this.control = control;
+        this.threads = threads;
+        tree = new Node(position.isLastMoveWin(), position.isFull());
+    }
+
+    /**
+     * Creates the pool of helper threads.
+     *
+     * @return Pool with a thread less than there are processors, at least
+     *         one.
+     */
+    private static ExecutorService createHelpers() {
+        AtomicInteger count = new AtomicInteger();
+        int size = Math.max(1,
+                Runtime.getRuntime().availableProcessors() - 1);
+
+        return Executors.newFixedThreadPool(size, r -> {
+            Thread thread = new Thread(r, "monte-carlo-"
+                    + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs playouts until the level or a budget is used up. The calling
+     * thread plays as well.
+     *
+     * @param level Level of the machine, the number of playouts is
+     *              {@link #PLAYOUTS_PER_LEVEL} times the level.
+     * @return Array index of the most visited column or -1 if the search was
+     *         stopped.
+     */
+    int search(int level) {
+        long limit = (long) PLAYOUTS_PER_LEVEL * level;
+        Future<?>[] helpers = new Future<?>[threads - 1];
+
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = HELPERS.submit(this::help);
+        }
+
+        Position position = root.copy();
+        control.countCopy();
+        int[] path = new int[Board.ROWS * Board.COLS];
+        Node[] line = new Node[Board.ROWS * Board.COLS + 1];
+        long counted = 0;
+        long accounted = 0;
+
+        try {
+            while (!control.isStopped()) {
+                for (int i = 0; i < SYNC_PLAYOUTS; i++) {
+                    playout(position, path, line);
+                }
+
+                long total = playouts.sum();
+                control.countNodes(total - counted);
+                counted = total;
+
+                long size = nodes.sum();
+                if (!treeFull && !control.allocate(
+                        (size - accounted) * EXPANSION_BYTES)) {
+                    // No memory for more boards, later playouts start at
+                    // the leaves of the tree.
+                    treeFull = true;
+                }
+                accounted = size;
+
+                int best = bestColumn();
+                control.setResult(best + 1, getScore(best), getDepth());
+
+                if (total >= limit || control.isOverBudget()) {
+                    break;
+                }
+            }
+        } finally {
+            done = true;
+            for (Future<?> helper : helpers) {
+                // A helper that did not start yet is not needed any more.
+                if (!helper.cancel(false)) {
+                    awaitHelper(helper);
+                }
+            }
+            control.release(accounted * EXPANSION_BYTES);
+        }
+
+        if (control.isStopped()) {
+            return -1;
+        }
+        return bestColumn();
+    }
+
+    /**
+     * Waits until a helper has finished.
+     *
+     * @param helper The running or finished helper.
+     * @throws IllegalStateException The helper failed.
+     */
+    private static void awaitHelper(Future<?> helper) {
+        try {
+            helper.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Playouts failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Runs playouts in a helper thread until the search is done.
+     */
+    private void help() {
+        Position position = root.copy();
+        control.countCopy();
+        int[] path = new int[Board.ROWS * Board.COLS];
+        Node[] line = new Node[Board.ROWS * Board.COLS + 1];
+
+        while (!done && !control.isStopped()) {
+            playout(position, path, line);
+        }
+    }
+
+    /**
+     * Runs one playout: descends the tree, adds a board, finishes the game
+     * and counts the result on the way back. The position is restored
+     * afterwards.
+     *
+     * @param position Copy of the root position for this thread.
+     * @param path Buffer for the columns played.
+     * @param line Buffer for the nodes visited.
+     */
+    private void playout(Position position, int[] path, Node[] line) {
+        int depth = 0;
+        Node node = tree;
+        line[0] = node;
+        VISITS.incrementAndGet(node);
+
+        // Selection and expansion.
+        while (!node.isTerminal()) {
+            Node[] children = node.children;
+            if (children == null) {
+                if (treeFull) {
+                    break;
+                }
+                children = node.expand(position, nodes);
+            }
+
+            int col = select(node, children);
+            position.play(col);
+            path[depth++] = col;
+            node = children[col];
+            line[depth] = node;
+
+            if (VISITS.getAndIncrement(node) == 0) {
+                // A new board, the playout starts here.
+                break;
+            }
+        }
+
+        int plies = depth;
+        int winner = -1;
+
+        if (node.won) {
+            winner = 1 - position.getSideToMove();
+        } else if (!node.full) {
+            winner = simulate(position, path, plies);
+            plies = position.getMoves() - root.getMoves();
+        }
+
+        for (int i = plies - 1; i >= 0; i--) {
+            position.undo(path[i]);
+        }
+
+        // Every board scores for the side that moved into it.
+        int side = root.getSideToMove();
+        for (int i = depth; i >= 0; i--) {
+            int mover = (i % 2 == 0) ? 1 - side : side;
+            int result = winner < 0 ? DRAW : winner == mover ? WIN : 0;
+            SCORE.addAndGet(line[i], result);
+        }
+        playouts.increment();
+    }
+
+    /**
+     * Finishes a game with quick moves.
+     *
+     * @param position Position to play on, the moves are appended to the
+     *                 path and not taken back.
+     * @param path Columns played so far.
+     * @param plies Number of columns in the path.
+     * @return Side index of the winner or -1 for a draw.
+     */
+    private static int simulate(Position position, int[] path, int plies) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (!position.isFull()) {
+            int side = position.getSideToMove();
+            int col = threat(position, side);
+
+            if (col < 0) {
+                col = threat(position, 1 - side);
+            }
+            if (col < 0) {
+                col = random.nextInt(Board.COLS);
+                while (!position.canPlay(col)) {
+                    col = random.nextInt(Board.COLS);
+                }
+            }
+
+            position.play(col);
+            path[plies++] = col;
+
+            if (position.isLastMoveWin()) {
+                return side;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a column where a side would complete a line.
+     *
+     * @param position The position.
+     * @param side Side index.
+     * @return Array index of the column or -1 if there is none.
+     */
+    private static int threat(Position position, int side) {
+        long board = position.getBoard(side);
+
+        for (int col = 0; col < Board.COLS; col++) {
+            if (position.canPlay(col) && Position.hasLine(board
+                    | 1L << (col * Position.HEIGHT
+                    + position.getHeight(col)))) {
+                return col;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Chooses the child with the best upper confidence bound. Unvisited
+     * children come first.
+     *
+     * @param parent The node.
+     * @param children Its children by column, null for full columns.
+     * @return Array index of the chosen column.
+     */
+    private static int select(Node parent, Node[] children) {
+        double logVisits = Math.log(Math.max(1, parent.visits));
+        double bestBound = -1;
+        int best = -1;
+
+        for (int col = 0; col < Board.COLS; col++) {
+            Node child = children[col];
+            if (child == null) {
+                continue;
+            }
+
+            int visits = child.visits;
+            if (visits == 0) {
+                return col;
+            }
+
+            double bound = child.score / (double) (WIN * visits)
+                    + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (bound > bestBound) {
+                bestBound = bound;
+                best = col;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the most visited column of the root, the lowest of equal ones.
+     *
+     * @return Array index of the column.
+     */
+    private int bestColumn() {
+        Node[] children = tree.children;
+        int best = -1;
+
+        for (int col = 0; col < Board.COLS && children != null; col++) {
+            if (children[col] != null && (best < 0
+                    || children[col].visits > children[best].visits)) {
+                best = col;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the share of won playouts of a root column.
+     *
+     * @param col Array index of the column.
+     * @return Score in per mille, draws count half.
+     */
+    private int getScore(int col) {
+        Node child = tree.children[col];
+        return (int) (1000L * child.score / (WIN * Math.max(1,
+                child.visits)));
+    }
+
+    /**
+     * Gets the length of the line of most visited boards.
+     *
+     * @return Number of moves in the tree along that line.
+     */
+    private int getDepth() {
+        int depth = 0;
+        Node node = tree;
+
+        while (node.children != null) {
+            Node next = null;
+            for (Node child : node.children) {
+                if (child != null && child.visits > 0 && (next == null
+                        || child.visits > next.visits)) {
+                    next = child;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            node = next;
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * A board of the tree with its playout statistics.
+     */
+    private static final class Node {
+
+        private final boolean won;
+        private final boolean full;
+        private volatile Node[] children;
+        private volatile int visits;
+        private volatile int score;
+
+        /**
+         * Creates an unvisited node.
+         *
+         * @param won True if the move into this board won the game.
+         * @param full True if the board is full.
+         */
+        Node(boolean won, boolean full) {
+            this.won = won;
+            this.full = full;
+        }
+
+        /**
+         * Checks if the game is over on this board.
+         *
+         * @return True if it was won or is full.
+         */
+        boolean isTerminal() {
+            return won || full;
+        }
+
+        /**
+         * Creates the children, unless another thread did so already.
+         *
+         * @param position Position of this board.
+         * @param nodes Counter of created nodes.
+         * @return The children by column, null for full columns.
+         */
+        synchronized Node[] expand(Position position, LongAdder nodes) {
+            if (children == null) {
+                Node[] created = new Node[Board.COLS];
+
+                for (int col = 0; col < Board.COLS; col++) {
+                    if (position.canPlay(col)) {
+                        position.play(col);
+                        created[col] = new Node(position.isLastMoveWin(),
+                                position.isFull());
+                        position.undo(col);
+                    }
+                }
+                nodes.add(1);
+                children = created;
+            }
+            return children;
+        }
+    }
+}
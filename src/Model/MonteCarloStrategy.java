@@ -0,0 +1,34 @@
+package Model;
+
+/**
+ * Monte Carlo tree search with {@link MonteCarloSearch#PLAYOUTS_PER_LEVEL}
+ * playouts per level, see {@link MonteCarloSearch}.
+ */
+public final class MonteCarloStrategy implements MoveStrategy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "montecarlo";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDepthLimited() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectColumn(PositionView position, SearchBudget budget) {
+        MonteCarloSearch search = new MonteCarloSearch(position,
+                budget.getControl(), budget.getThreads());
+        return search.search(budget.getLevel()) + 1;
+    }
+}
@@ -0,0 +1,90 @@
+package Model;
+
+/**
+ * Compact record of the moves of one game for taking moves back and
+ * replaying them. Every ply takes one byte for its column. Plies that were
+ * taken back stay in the log until a different move is recorded.
+ */
+public final class MoveLog {
+
+    private static final int MAX_PLIES = Board.ROWS * Board.COLS;
+
+    private final byte[] columns = new byte[MAX_PLIES];
+    private int size = 0;
+    private int end = 0;
+
+    /**
+     * Records a move. If it is the next ply that was taken back, the plies
+     * after it are kept for replaying, otherwise they are dropped.
+     *
+     * @param col Column of the move from 1 to {@link Board#COLS}.
+     * @throws IllegalStateException The board is already full.
+     */
+    public void record(int col) {
+        if (size == MAX_PLIES) {
+            throw new IllegalStateException("Move log is full");
+        }
+        if (size < end && columns[size] == col) {
+            size++;
+            return;
+        }
+        columns[size] = (byte) col;
+        size++;
+        end = size;
+    }
+
+    /**
+     * Checks if there is a ply to take back.
+     *
+     * @return True if at least one move was recorded and not taken back.
+     */
+    public boolean canUndo() {
+        return size > 0;
+    }
+
+    /**
+     * Checks if there is a taken back ply to replay.
+     *
+     * @return True if a ply was taken back and nothing else was recorded.
+     */
+    public boolean canRedo() {
+        return size < end;
+    }
+
+    /**
+     * Takes back the last ply.
+     *
+     * @return Column of the ply from 1 to {@link Board#COLS}.
+     * @throws IllegalStateException There is no ply to take back.
+     */
+    public int undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        size--;
+        return columns[size];
+    }
+
+    /**
+     * Replays the next ply that was taken back.
+     *
+     * @return Column of the ply from 1 to {@link Board#COLS}.
+     * @throws IllegalStateException There is no ply to replay.
+     */
+    public int redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        size++;
+        return columns[size - 1];
+    }
+
+    /**
+     * Gets the number of plies on the board.
+     *
+     * @return Number of recorded plies that were not taken back.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,27 @@
+package Model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of executing the column the machine search chose.
+ */
+@Name("connectfour.MoveSelection")
+@Label("Move Selection")
+@Category({"Connect Four", "Search"})
+@Description("Execution of the chosen column on a new board")
+final class MoveSelectionEvent extends Event {
+
+    @Label("Column")
+    int column;
+
+    @Label("Score")
+    int score;
+
+    @Label("Clones")
+    @Description("Position copies made to execute the move")
+    long clones;
+}
@@ -0,0 +1,87 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The move strategies on the class path. The default strategy can be chosen
+ * without code changes by setting the system property
+ * {@value #STRATEGY_PROPERTY} to its name.
+ */
+public final class MoveStrategies {
+
+    /**
+     * Name of the system property that selects the default strategy.
+     */
+    public static final String STRATEGY_PROPERTY = "connectfour.strategy";
+
+    /**
+     * Name of the reference strategy.
+     */
+    public static final String REFERENCE = "minimax";
+
+    private static final List<MoveStrategy> STRATEGIES = load();
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private MoveStrategies() {
+    }
+
+    /**
+     * Gets all strategies in the order they were found.
+     *
+     * @return Unmodifiable list of the strategies.
+     */
+    public static List<MoveStrategy> getAll() {
+        return STRATEGIES;
+    }
+
+    /**
+     * Gets a strategy by name.
+     *
+     * @param name Name of the strategy.
+     * @return The strategy.
+     * @throws IllegalArgumentException There is no strategy of that name.
+     */
+    public static MoveStrategy get(String name) {
+        for (MoveStrategy strategy : STRATEGIES) {
+            if (strategy.getName().equals(name)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown strategy: " + name);
+    }
+
+    /**
+     * Gets the strategy new games start with, the one named by the system
+     * property or else the reference strategy.
+     *
+     * @return The default strategy.
+     */
+    public static MoveStrategy getDefault() {
+        return get(System.getProperty(STRATEGY_PROPERTY, REFERENCE));
+    }
+
+    /**
+     * Finds the strategies. The reference strategy is always there, even if
+     * the service file was not copied onto the class path.
+     *
+     * @return Unmodifiable list of the strategies.
+     */
+    private static List<MoveStrategy> load() {
+        List<MoveStrategy> strategies = new ArrayList<>();
+        boolean reference = false;
+
+        for (MoveStrategy strategy : ServiceLoader.load(MoveStrategy.class)) {
+            strategies.add(strategy);
+            reference |= strategy.getName().equals(REFERENCE);
+        }
+        if (!reference) {
+            strategies.add(0, new MinimaxStrategy());
+        }
+        return Collections.unmodifiableList(strategies);
+    }
+}
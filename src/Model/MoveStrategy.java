@@ -0,0 +1,49 @@
+package Model;
+
+/**
+ * Algorithm the machine chooses its moves with. Strategies are found with
+ * {@link java.util.ServiceLoader}: an implementation needs a public no-arg
+ * constructor and its class name in
+ * {@code META-INF/services/Model.MoveStrategy}. One instance serves all
+ * games and threads, so implementations must not keep state between
+ * searches.
+ *
+ * @see MoveStrategies
+ */
+public interface MoveStrategy {
+
+    /**
+     * Gets the name the strategy is selected by.
+     *
+     * @return Short lower case name.
+     */
+    String getName();
+
+    /**
+     * Checks if the level is a search depth, so that callers can search
+     * with increasing levels and show a result after each. Otherwise the
+     * strategy is expected to improve its result in the control while it
+     * runs.
+     *
+     * @return True if the level is a depth.
+     */
+    default boolean isDepthLimited() {
+        return true;
+    }
+
+    /**
+     * Chooses the column for the side to move. The strategy stores score
+     * and depth of its move in the control of the budget with
+     * {@link SearchControl#setResult(int, int, int)} and counts its work
+     * with {@link SearchControl#countNodes(long)} and its copies of the
+     * position with {@link SearchControl#countCopy()}; the returned column
+     * is stored there by the caller if the strategy did not.
+     *
+     * @param position Copy of the position with the machine to move, not
+     *                 over.
+     * @param budget Level, budgets and resources of the search.
+     * @return Column from 1 to {@link Board#COLS} or 0 if the search was
+     *         stopped.
+     */
+    int selectColumn(PositionView position, SearchBudget budget);
+}
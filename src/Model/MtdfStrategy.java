@@ -0,0 +1,28 @@
+package Model;
+
+/**
+ * Alpha-beta search like {@link MinimaxStrategy} that only uses null
+ * windows and converges on the value from the previous iterations (MTD(f)).
+ * It chooses the same moves and depends on the transposition table.
+ */
+public final class MtdfStrategy implements MoveStrategy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "mtdf";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectColumn(PositionView position, SearchBudget budget) {
+        Search search = new Search(position, position.getSideToMove(),
+                budget.getWeights(), budget.getTable(), budget.getControl(),
+                Search.Variant.MTDF);
+        return search.searchRoot(budget.getLevel()) + 1;
+    }
+}
@@ -0,0 +1,253 @@
+package Model;
+
+import java.util.Random;
+
+/**
+ * Compact, mutable game position for the machine search. The checkers of
+ * each side are stored as a bitboard with bit {@code col * HEIGHT + row}.
+ * Every column has one more bit than rows, which always stays empty, so
+ * lines never wrap from one column into the next.
+ */
+public final class Position implements PositionView {
+
+    /**
+     * Number of bits per column.
+     */
+    public static final int HEIGHT = Board.ROWS + 1;
+
+    /**
+     * Bit shifts of the four directions a line can run in: vertical,
+     * horizontal, falling and rising diagonal.
+     */
+    public static final int[] DIRECTIONS = {1, HEIGHT, HEIGHT - 1,
+        HEIGHT + 1};
+
+    /**
+     * Bitboard of the lowest slot of every column.
+     */
+    private static final long BOTTOM;
+
+    /**
+     * Bitboard of all slots of the board.
+     */
+    private static final long BOARD_MASK;
+
+    /**
+     * Random numbers per side and bit whose xor over all checkers forms the
+     * key of a position (Zobrist hashing).
+     */
+    private static final long[][] ZOBRIST = new long[2][Board.COLS * HEIGHT];
+
+    static {
+        long bottom = 0;
+        long board = 0;
+
+        for (int col = 0; col < Board.COLS; col++) {
+            bottom |= 1L << (col * HEIGHT);
+            board |= columnMask(col);
+        }
+        BOTTOM = bottom;
+        BOARD_MASK = board;
+
+        Random random = new Random(Board.ROWS * Board.COLS);
+
+        for (long[] sideKeys : ZOBRIST) {
+            for (int i = 0; i < sideKeys.length; i++) {
+                sideKeys[i] = random.nextLong();
+            }
+        }
+    }
+
+    private final long[] boards = new long[2];
+    private final int[] heights = new int[Board.COLS];
+    private int moves = 0;
+    private long key = 0;
+
+    /**
+     * Creates an empty position.
+     */
+    public Position() {
+    }
+
+    /**
+     * Creates a copy of a position.
+     *
+     * @param other Position to copy.
+     */
+    public Position(Position other) {
+        boards[0] = other.boards[0];
+        boards[1] = other.boards[1];
+        System.arraycopy(other.heights, 0, heights, 0, Board.COLS);
+        moves = other.moves;
+        key = other.key;
+    }
+
+    /**
+     * Gets the mask of all bits of a column.
+     *
+     * @param col Array index of the column.
+     * @return Bitboard with all slots of the column set.
+     */
+    public static long columnMask(int col) {
+        return ((1L << Board.ROWS) - 1) << (col * HEIGHT);
+    }
+
+    /**
+     * Checks if a bitboard contains {@code CONNECT} checkers in a line.
+     *
+     * @param board Bitboard of one side.
+     * @return True if there is a line.
+     */
+    public static boolean hasLine(long board) {
+        for (int direction : DIRECTIONS) {
+            long line = board;
+
+            for (int i = 1; i < Board.CONNECT && line != 0; i++) {
+                line &= board >>> (i * direction);
+            }
+            if (line != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the slots that would complete a line of four checkers of a
+     * bitboard, occupied or not.
+     *
+     * @param board Bitboard of one side.
+     * @return Bitboard of the slots.
+     */
+    public static long winningCells(long board) {
+        // Vertical lines can only be completed on top.
+        long cells = (board << 1) & (board << 2) & (board << 3);
+
+        for (int i = 1; i < DIRECTIONS.length; i++) {
+            int d = DIRECTIONS[i];
+            long pair = (board << d) & (board << 2 * d);
+            cells |= pair & (board << 3 * d);
+            cells |= pair & (board >>> d);
+
+            pair = (board >>> d) & (board >>> 2 * d);
+            cells |= pair & (board << d);
+            cells |= pair & (board >>> 3 * d);
+        }
+        return cells & BOARD_MASK;
+    }
+
+    /**
+     * Gets the slots the next checker of each column that is not full would
+     * fall into.
+     *
+     * @return Bitboard of the slots.
+     */
+    public long getPlayable() {
+        return ((boards[0] | boards[1]) + BOTTOM) & BOARD_MASK;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canPlay(int col) {
+        return heights[col] < Board.ROWS;
+    }
+
+    /**
+     * Drops a checker of the side to move into a column. The column must not
+     * be full.
+     *
+     * @param col Array index of the column.
+     */
+    public void play(int col) {
+        int bit = col * HEIGHT + heights[col];
+        int side = moves & 1;
+
+        boards[side] |= 1L << bit;
+        key ^= ZOBRIST[side][bit];
+        heights[col]++;
+        moves++;
+    }
+
+    /**
+     * Takes back the last checker of a column, which must have been the last
+     * move.
+     *
+     * @param col Array index of the column.
+     */
+    public void undo(int col) {
+        moves--;
+        heights[col]--;
+
+        int bit = col * HEIGHT + heights[col];
+        int side = moves & 1;
+
+        boards[side] &= ~(1L << bit);
+        key ^= ZOBRIST[side][bit];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLastMoveWin() {
+        return moves > 0 && hasLine(boards[(moves - 1) & 1]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFull() {
+        return moves == Board.ROWS * Board.COLS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getSideToMove() {
+        return moves & 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getHeight(int col) {
+        return heights[col];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBoard(int side) {
+        return boards[side];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Position copy() {
+        return new Position(this);
+    }
+}
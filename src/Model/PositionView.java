@@ -0,0 +1,75 @@
+package Model;
+
+/**
+ * Read-only view of a compact game position, see {@link Position} for the
+ * bitboard layout. Strategies that want to play moves search on a
+ * {@link #copy()}.
+ */
+public interface PositionView {
+
+    /**
+     * Checks if a column has room for another checker.
+     *
+     * @param col Array index of the column.
+     * @return True if the column is not full.
+     */
+    boolean canPlay(int col);
+
+    /**
+     * Checks if the side that made the last move has a line.
+     *
+     * @return True if the last move won the game.
+     */
+    boolean isLastMoveWin();
+
+    /**
+     * Checks if all slots are filled.
+     *
+     * @return True if the board is full.
+     */
+    boolean isFull();
+
+    /**
+     * Gets the side to move, 0 for the player who moved first.
+     *
+     * @return Side index.
+     */
+    int getSideToMove();
+
+    /**
+     * Gets the number of checkers on the board.
+     *
+     * @return Number of moves made.
+     */
+    int getMoves();
+
+    /**
+     * Gets the number of checkers in a column.
+     *
+     * @param col Array index of the column.
+     * @return Height of the column.
+     */
+    int getHeight(int col);
+
+    /**
+     * Gets the checkers of one side.
+     *
+     * @param side Side index, 0 for the player who moved first.
+     * @return Bitboard of the side.
+     */
+    long getBoard(int side);
+
+    /**
+     * Gets the Zobrist key of the position.
+     *
+     * @return Key that is equal for equal positions.
+     */
+    long getKey();
+
+    /**
+     * Creates a mutable copy of the position.
+     *
+     * @return A new position equal to this one.
+     */
+    Position copy();
+}
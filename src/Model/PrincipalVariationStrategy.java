@@ -0,0 +1,28 @@
+package Model;
+
+/**
+ * Alpha-beta search like {@link MinimaxStrategy} with null windows for all
+ * but the first move and aspiration windows at the root. It chooses the
+ * same moves with fewer nodes.
+ */
+public final class PrincipalVariationStrategy implements MoveStrategy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return "pvs";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectColumn(PositionView position, SearchBudget budget) {
+        Search search = new Search(position, position.getSideToMove(),
+                budget.getWeights(), budget.getTable(), budget.getControl(),
+                Search.Variant.PRINCIPAL_VARIATION);
+        return search.searchRoot(budget.getLevel()) + 1;
+    }
+}
@@ -0,0 +1,803 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Depth-first alpha-beta search of the machine move on a compact position.
+ *
+ * The value of a board is its static value plus the value of the best board
+ * below it for the side to move there, the largest for the machine and the
+ * smallest for the human, down to the level. This is the value the machine
+ * used to calculate on its complete game tree, but only the current line is
+ * kept in memory. On a board where someone has won, the static value counts
+ * once for every remaining depth as if the game stood still.
+ *
+ * The heap memory of a search is allocated once per search and per ply and
+ * accounted in the {@link SearchControl}. A search never goes deeper than
+ * its memory budget allows and falls back to a smaller depth when its node
+ * budget runs out. The transposition table is shared and has a fixed size.
+ *
+ * Forcing lines are searched deeper than the level: a board is extended by
+ * one ply if the side to move has at most one move that does not lose at
+ * once, which includes every threat of four it has to block. Every line is
+ * extended by at most {@link #MAX_EXTENSIONS} plies. As a board is only
+ * extended while its line has extensions left, their number is part of the
+ * table key, so that every stored value depends on the board alone.
+ */
+final class Search {
+
+    /**
+     * Larger than every board value.
+     */
+    static final int INFINITY = 1 << 30;
+
+    /**
+     * How the windows of the search are chosen. All variants choose the
+     * same move with the same value.
+     */
+    enum Variant {
+
+        /**
+         * Alpha-beta with full windows at the root.
+         */
+        ALPHA_BETA,
+
+        /**
+         * Principal variation search: every move after the first one is
+         * searched with a null window and searched again if it is better.
+         * Each iteration starts with an aspiration window around the value
+         * expected from the previous ones.
+         */
+        PRINCIPAL_VARIATION,
+
+        /**
+         * MTD(f): alpha-beta with null windows only, which converge on the
+         * value from a guess based on the previous iterations.
+         */
+        MTDF
+    }
+
+    /**
+     * Half width of the first aspiration window. A value in this search is
+     * a sum over the line, so it mainly grows by the same step every
+     * iteration and is predicted well.
+     */
+    private static final int ASPIRATION = 64;
+
+    /**
+     * Name of the system property with the largest number of extensions of
+     * one line, 0 turns extensions off.
+     */
+    static final String EXTENSIONS_PROPERTY = "connectfour.extensions";
+
+    /**
+     * Largest number of plies one line is extended by.
+     */
+    static final int MAX_EXTENSIONS = Integer.getInteger(EXTENSIONS_PROPERTY,
+            2);
+
+    /**
+     * Mixed into the table key once per extension of the line above a board
+     * and once per extension a line may have.
+     */
+    private static final long EXTENSIONS_KEY = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Mixed into the table key if the machine moves first, because the values
+     * of equal positions differ between the two machine sides.
+     */
+    private static final long MACHINE_FIRST_KEY = 0x5DEECE66DL * 0x2545F491L;
+
+    /**
+     * Columns ordered from the center outwards, central moves are usually
+     * better and searching them first prunes more.
+     */
+    private static final int[] MOVE_ORDER = new int[Board.COLS];
+
+    static {
+        for (int i = 0; i < Board.COLS; i++) {
+            MOVE_ORDER[i] = Board.COLS / 2
+                    + (i % 2 == 1 ? -(i + 1) / 2 : i / 2);
+        }
+    }
+
+    private final Position position;
+    private final int machineSide;
+    private final EvaluationWeights weights;
+    private final TranspositionTable table;
+    private final SearchControl control;
+    private final Variant variant;
+    /**
+     * Approximate heap bytes of the move buffers of one ply, two int arrays.
+     */
+    private static final long FRAME_BYTES = 2 * (16 + 4L * Board.COLS);
+
+    /**
+     * Length of the leaf batch arrays, one board per column plus the padding
+     * the batch evaluation needs.
+     */
+    private static final int LEAF_BATCH = Board.COLS + Evaluator.BATCH_PADDING;
+
+    /**
+     * Approximate heap bytes allocated once per search: the search itself,
+     * the position copy, the history table and the buffer arrays.
+     */
+    private static final long BASE_BYTES = 64
+            + 32 + (16 + 8L * 2) + (16 + 4L * Board.COLS)
+            + (16 + 8L * 2) + 2 * (16 + 4L * Board.COLS * Position.HEIGHT)
+            + 2 * (16 + 8L * Board.ROWS * Board.COLS)
+            + 2 * (16 + 8L * LEAF_BATCH) + (16 + 4L * LEAF_BATCH);
+
+    private final long keyMix;
+    private final int[][] history = new int[2][Board.COLS * Position.HEIGHT];
+    private final int[][] moveBuffers = new int[Board.ROWS * Board.COLS][];
+    private final int[][] scoreBuffers = new int[Board.ROWS * Board.COLS][];
+    private final long[] leafMachine = new long[LEAF_BATCH];
+    private final long[] leafHuman = new long[LEAF_BATCH];
+    private final int[] leafValues = new int[LEAF_BATCH];
+    private final int rootMoves;
+    private int rootValue;
+    private int finishedDepth = 0;
+    private long allocatedBytes;
+    private boolean overBudget = false;
+    private final SearchTracer tracer;
+    private int traceParent = -1;
+    private int extensions = 0;
+
+    /**
+     * Creates a search on a copy of the position.
+     *
+     * @param position Position with the machine to move.
+     * @param machineSide Side index of the machine.
+     * @param weights Weights of the evaluation.
+     * @param table Table for searched positions.
+     * @param control Control that counts nodes and can stop the search.
+     */
+    Search(PositionView position, int machineSide, EvaluationWeights weights,
+           TranspositionTable table, SearchControl control) {
+        this(position, machineSide, weights, table, control,
+                Variant.ALPHA_BETA);
+    }
+
+    /**
+     * Creates a search of a variant on a copy of the position. The copy is
+     * counted in the control.
+     *
+     * @param position Position with the machine to move.
+     * @param machineSide Side index of the machine.
+     * @param weights Weights of the evaluation.
+     * @param table Table for searched positions.
+     * @param control Control that counts nodes and can stop the search.
+     * @param variant How windows are chosen.
+     */
+    Search(PositionView position, int machineSide, EvaluationWeights weights,
+           TranspositionTable table, SearchControl control, Variant variant) {
+        this.variant = variant;
+        this.position = position.copy();
+        control.countCopy();
+        this.machineSide = machineSide;
+        this.weights = weights;
+        this.table = table;
+        this.control = control;
+        tracer = control.getTracer();
+
+        long mix = getTableKey(weights);
+        if (machineSide == 0) {
+            mix ^= MACHINE_FIRST_KEY;
+        }
+        keyMix = mix;
+        rootMoves = position.getMoves();
+        allocatedBytes = BASE_BYTES;
+        control.reserve(BASE_BYTES);
+    }
+
+    /**
+     * Gets the key of the values a search stores in a table: they depend on
+     * the weights and on the number of extensions a line may have.
+     *
+     * @param weights Weights of the evaluation.
+     * @return Key that differs if the stored values differ.
+     */
+    static long getTableKey(EvaluationWeights weights) {
+        return weights.getKey() ^ Long.rotateLeft(EXTENSIONS_KEY, 17)
+                * MAX_EXTENSIONS;
+    }
+
+    /**
+     * Searches with increasing depth up to the level. Each iteration starts
+     * with the best move of the previous one and fills the table with best
+     * moves for the next one. Column, value and depth of the best move are
+     * stored in the control. If the node budget of the control runs out,
+     * the result of the last finished depth is kept.
+     *
+     * @param level Number of moves to look ahead.
+     * @return Array index of the best column or -1 if the search was stopped.
+     */
+    int searchRoot(int level) {
+        int best = -1;
+        int previous = 0;
+        int beforePrevious = 0;
+
+        for (int depth = 1; depth <= level && !overBudget; depth++) {
+            SearchIterationEvent event = new SearchIterationEvent();
+            long nodes = control.getNodes();
+            long tableHits = control.getTableHits();
+            event.begin();
+
+            // Values grow by about the same step every iteration.
+            int guess = finishedDepth < 2 ? previous
+                    : 2 * previous - beforePrevious;
+            int result = variant == Variant.MTDF && finishedDepth > 0
+                    ? searchMtdf(depth, best, guess)
+                    : variant == Variant.PRINCIPAL_VARIATION
+                    && finishedDepth > 0
+                    ? searchAspiration(depth, best, guess)
+                    : searchDepth(depth, best, -INFINITY, INFINITY);
+            boolean finished = !control.isStopped() && !overBudget;
+
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.nodes = control.getNodes() - nodes;
+                event.tableHits = control.getTableHits() - tableHits;
+                event.column = result + 1;
+                event.finished = finished;
+                event.commit();
+            }
+
+            if (control.isStopped()) {
+                best = -1;
+                break;
+            }
+            if (finished) {
+                best = result;
+                beforePrevious = previous;
+                previous = rootValue;
+                finishedDepth = depth;
+                control.setResult(best + 1, rootValue, depth);
+            }
+        }
+
+        // The buffers are garbage once the search returns.
+        control.release(allocatedBytes);
+        return best;
+    }
+
+    /**
+     * Searches every legal column with increasing depth up to the level,
+     * each with a full window so that all values are exact. The columns
+     * share the table and the move ordering of one search. The best column
+     * of every finished depth is stored in the control. If the search is
+     * stopped or the budget of the control runs out, the results of the
+     * last finished depth are kept.
+     *
+     * @param level Number of moves to look ahead.
+     * @return Analysis of every legal column in column order, empty if the
+     *         search was stopped before the first depth finished.
+     */
+    List<ColumnAnalysis> analyzeRoot(int level) {
+        List<ColumnAnalysis> result = new ArrayList<>();
+
+        for (int depth = 1; depth <= level && !overBudget; depth++) {
+            int[] values = new int[Board.COLS];
+
+            for (int col : MOVE_ORDER) {
+                if (position.canPlay(col)) {
+                    position.play(col);
+                    int bonus = position.isLastMoveWin()
+                            ? weights.get(EvaluationWeights.BOT_WIN) : 0;
+                    values[col] = visit(col, depth - 1, -INFINITY,
+                            INFINITY) + bonus;
+                    position.undo(col);
+                }
+            }
+
+            if (control.isStopped()) {
+                // The values of this depth are incomplete.
+                break;
+            }
+            if (!overBudget) {
+                int best = -1;
+
+                result.clear();
+                for (int col = 0; col < Board.COLS; col++) {
+                    if (position.canPlay(col)) {
+                        result.add(new ColumnAnalysis(col + 1, values[col],
+                                depth, principalVariation(col, depth)));
+                        if (best < 0 || values[col] > values[best]) {
+                            best = col;
+                        }
+                    }
+                }
+                finishedDepth = depth;
+                control.setResult(best + 1, values[best], depth);
+            }
+        }
+
+        control.release(allocatedBytes);
+        return result;
+    }
+
+    /**
+     * Follows the best moves stored in the table from a root column.
+     *
+     * @param col Array index of the root column.
+     * @param depth Maximum length of the line.
+     * @return Columns of the line from 1 to {@link Board#COLS}.
+     */
+    private int[] principalVariation(int col, int depth) {
+        int[] line = new int[depth];
+        int length = 0;
+        int move = col;
+        int extended = 0;
+
+        while (move >= 0) {
+            position.play(move);
+            line[length++] = move;
+            move = -1;
+
+            if (length < depth && !position.isLastMoveWin()
+                    && !position.isFull()) {
+                long entry = table.probe(position.getKey() ^ keyMix
+                        ^ EXTENSIONS_KEY * extended);
+                int tableMove = TranspositionTable.getMove(entry);
+
+                if (entry != 0 && tableMove >= 0
+                        && position.canPlay(tableMove)) {
+                    move = tableMove;
+                }
+                if (extended < MAX_EXTENSIONS && isForcing()) {
+                    extended++;
+                }
+            }
+        }
+
+        int[] columns = new int[length];
+        for (int i = length - 1; i >= 0; i--) {
+            position.undo(line[i]);
+            columns[i] = line[i] + 1;
+        }
+        return columns;
+    }
+
+    /**
+     * Searches all moves within a window around the expected value, which is
+     * widened on the failing side until the value falls inside.
+     *
+     * @param depth Number of moves to look ahead.
+     * @param firstMove Column to search first.
+     * @param guess Expected value.
+     * @return Array index of the best column, its value is stored in
+     *         {@code rootValue}.
+     */
+    private int searchAspiration(int depth, int firstMove, int guess) {
+        int lower = guess - ASPIRATION;
+        int upper = guess + ASPIRATION;
+        int delta = ASPIRATION;
+
+        while (true) {
+            int best = searchDepth(depth, firstMove, lower, upper);
+
+            if (control.isStopped() || overBudget) {
+                return best;
+            }
+            if (rootValue <= lower) {
+                delta *= 4;
+                lower = rootValue - delta <= -INFINITY ? -INFINITY
+                        : rootValue - delta;
+            } else if (rootValue >= upper) {
+                delta *= 4;
+                upper = rootValue + delta >= INFINITY ? INFINITY
+                        : rootValue + delta;
+            } else {
+                return best;
+            }
+            firstMove = best;
+        }
+    }
+
+    /**
+     * Finds the value with null window searches that move towards it from a
+     * guess (MTD(f)), then the lowest column with that value.
+     *
+     * @param depth Number of moves to look ahead.
+     * @param firstMove Column to search first.
+     * @param guess Expected value.
+     * @return Array index of the best column, its value is stored in
+     *         {@code rootValue}.
+     */
+    private int searchMtdf(int depth, int firstMove, int guess) {
+        int lower = -INFINITY;
+        int upper = INFINITY;
+        int value = guess;
+        int best = firstMove;
+
+        while (lower < upper) {
+            int beta = value == lower ? value + 1 : value;
+            best = searchDepth(depth, best, beta - 1, beta);
+
+            if (control.isStopped() || overBudget) {
+                return best;
+            }
+            value = rootValue;
+            if (value < beta) {
+                upper = value;
+            } else {
+                lower = value;
+            }
+        }
+
+        // Only moves of the best value are exact in this window, so the
+        // lowest column among them is found.
+        return searchDepth(depth, best, value - 1, value + 1);
+    }
+
+    /**
+     * Searches all moves of the machine to the given depth. Of moves with
+     * equal value the one in the lowest column is chosen. Values outside of
+     * the window are only bounds, and so is the best one then.
+     *
+     * @param depth Number of moves to look ahead.
+     * @param firstMove Column to search first or -1.
+     * @param lower Value the machine is already sure to reach.
+     * @param upper Value above which the exact value is not needed.
+     * @return Array index of the best column, its value is stored in
+     *         {@code rootValue}.
+     */
+    private int searchDepth(int depth, int firstMove, int lower, int upper) {
+        int bestCol = -1;
+        int bestValue = -INFINITY;
+        int root = -1;
+
+        if (tracer != null) {
+            root = tracer.enter();
+            traceParent = root;
+        }
+
+        for (int i = -1; i < Board.COLS; i++) {
+            int col = i < 0 ? firstMove : MOVE_ORDER[i];
+
+            if (col < 0 || (i >= 0 && col == firstMove)
+                    || !position.canPlay(col)) {
+                continue;
+            }
+
+            position.play(col);
+
+            // A move that wins at once gets the bot-win bonus.
+            int bonus = position.isLastMoveWin()
+                    ? weights.get(EvaluationWeights.BOT_WIN) : 0;
+
+            // Only a larger value, or an equal one in a lower column, can
+            // replace the best move.
+            int alpha = bestCol < 0 ? lower : Math.max(lower,
+                    col < bestCol ? bestValue - 1 : bestValue);
+            int beta = upper == INFINITY ? INFINITY : upper - bonus;
+            int value;
+
+            if (variant == Variant.PRINCIPAL_VARIATION && bestCol >= 0) {
+                value = visit(col, depth - 1, alpha - bonus,
+                        alpha - bonus + 1) + bonus;
+
+                if (value > alpha && value < upper) {
+                    value = visit(col, depth - 1, alpha - bonus, beta)
+                            + bonus;
+                }
+            } else {
+                value = visit(col, depth - 1, alpha - bonus, beta) + bonus;
+            }
+            position.undo(col);
+
+            if (bestCol < 0 || value > bestValue
+                    || (value == bestValue && col < bestCol)) {
+                bestValue = value;
+                bestCol = col;
+            }
+            if (bestValue >= upper) {
+                // The value is above the window, the caller only needs to
+                // know that.
+                break;
+            }
+        }
+        rootValue = bestValue;
+
+        if (tracer != null) {
+            // The null windows of MTD(f) and aspiration only bound the value.
+            int bound = bestValue <= lower ? SearchTracer.UPPER
+                    : bestValue >= upper ? SearchTracer.LOWER
+                    : SearchTracer.EXACT;
+            traceParent = -1;
+            tracer.record(root, -1, 0, bound, depth, 0, evaluate(),
+                    bestValue);
+        }
+        return bestCol;
+    }
+
+    /**
+     * Calculates the value of the board after a move and traces it if a
+     * tracer is set.
+     *
+     * @param col Array index of the column that was just played.
+     * @param depth Number of moves to look ahead below this board.
+     * @param alpha Value the machine is already sure to reach.
+     * @param beta Value the human is already sure to hold the machine to.
+     * @return The value of the board.
+     */
+    private int visit(int col, int depth, int alpha, int beta) {
+        if (tracer == null) {
+            return value(depth, alpha, beta);
+        }
+
+        int parent = traceParent;
+        int node = tracer.enter();
+        traceParent = node;
+        int result = value(depth, alpha, beta);
+        traceParent = parent;
+
+        int bound = result <= alpha ? SearchTracer.UPPER
+                : result >= beta ? SearchTracer.LOWER : SearchTracer.EXACT;
+        tracer.record(node, parent, col + 1, bound, depth,
+                position.getMoves() - rootMoves, evaluate(), result);
+        return result;
+    }
+
+    /**
+     * Evaluates the current board statically.
+     *
+     * @return Static value from the machine's point of view.
+     */
+    private int evaluate() {
+        return Evaluator.evaluate(position.getBoard(machineSide),
+                position.getBoard(1 - machineSide), weights);
+    }
+
+    /**
+     * Orders the legal moves for searching: the best move from the table
+     * first, then by how often the move cut off the search before, central
+     * columns first if equal.
+     *
+     * @param side Side to move.
+     * @param tableMove Array index of the table's best column or -1.
+     * @param moves Receives the array indices of the legal columns in
+     *              search order.
+     * @param scores Buffer for the ordering scores.
+     * @return Number of legal columns.
+     */
+    private int orderMoves(int side, int tableMove, int[] moves,
+                           int[] scores) {
+        int count = 0;
+
+        for (int col : MOVE_ORDER) {
+            if (!position.canPlay(col)) {
+                continue;
+            }
+            int score = col == tableMove ? Integer.MAX_VALUE
+                    : history[side][col * Position.HEIGHT
+                    + position.getHeight(col)];
+            int i = count++;
+
+            // Insertion sort, stable so that equal moves keep their order.
+            while (i > 0 && scores[i - 1] < score) {
+                moves[i] = moves[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            moves[i] = col;
+            scores[i] = score;
+        }
+        return count;
+    }
+
+    /**
+     * Calculates the value of the current board within a window. Values
+     * outside of the window are only bounds of the real value. An extended
+     * board takes the value of its best successor searched to the full
+     * depth instead of adding its own static value, so that extended lines
+     * sum up as many boards as the others.
+     *
+     * @param depth Number of moves to look ahead below this board.
+     * @param alpha Value the machine is already sure to reach.
+     * @param beta Value the human is already sure to hold the machine to.
+     * @return The value of the board.
+     */
+    private int value(int depth, int alpha, int beta) {
+        countNode();
+
+        int staticValue = evaluate();
+
+        if (position.isLastMoveWin()) {
+            return staticValue * (depth + 1);
+        }
+        if (depth == 0 || position.isFull() || control.isStopped()
+                || overBudget) {
+            return staticValue;
+        }
+
+        int ply = position.getMoves() - rootMoves;
+        if (moveBuffers[ply] == null) {
+            if (!control.allocate(FRAME_BYTES)) {
+                // No memory left for a deeper line, evaluate it as a leaf.
+                return staticValue;
+            }
+            allocatedBytes += FRAME_BYTES;
+            moveBuffers[ply] = new int[Board.COLS];
+            scoreBuffers[ply] = new int[Board.COLS];
+        }
+
+        // The same board is extended differently below with fewer
+        // extensions left.
+        long key = position.getKey() ^ keyMix ^ EXTENSIONS_KEY * extensions;
+        long entry = table.probe(key, depth);
+        int tableMove = -1;
+
+        if (entry != 0) {
+            tableMove = TranspositionTable.getMove(entry);
+
+            // Values of other depths sum up a different number of boards.
+            if (TranspositionTable.getDepth(entry) == depth) {
+                int stored = TranspositionTable.getValue(entry);
+                int bound = TranspositionTable.getBound(entry);
+
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER
+                        && stored >= beta)
+                        || (bound == TranspositionTable.UPPER
+                        && stored <= alpha)) {
+                    control.countTableHit();
+                    return stored;
+                }
+            }
+        }
+
+        boolean extend = extensions < MAX_EXTENSIONS && isForcing();
+        int childDepth = extend ? depth : depth - 1;
+        int base = extend ? 0 : staticValue;
+
+        boolean machineToMove = position.getSideToMove() == machineSide;
+        int childAlpha = alpha - base;
+        int childBeta = beta - base;
+        int best = machineToMove ? -INFINITY : INFINITY;
+        int bestMove = -1;
+
+        int side = position.getSideToMove();
+        int[] moves = moveBuffers[ply];
+        int count = orderMoves(side, tableMove, moves, scoreBuffers[ply]);
+
+        // The boards of the last ply are leaves, they are evaluated at once
+        // unless each of them is traced.
+        boolean leaves = childDepth == 0 && tracer == null;
+        if (leaves) {
+            evaluateLeaves(side, moves, count);
+        }
+        if (extend) {
+            extensions++;
+        }
+
+        for (int i = 0; i < count && childAlpha < childBeta; i++) {
+            int col = moves[i];
+            int childValue;
+
+            if (leaves) {
+                // A leaf is worth its static value, whether won or not.
+                countNode();
+                childValue = leafValues[i];
+            } else if (i > 0 && variant == Variant.PRINCIPAL_VARIATION) {
+                // Later moves are expected to be worse, which a null window
+                // proves cheaply. If not, they are searched again.
+                position.play(col);
+                if (machineToMove) {
+                    childValue = visit(col, childDepth, childAlpha,
+                            childAlpha + 1);
+                } else {
+                    childValue = visit(col, childDepth, childBeta - 1,
+                            childBeta);
+                }
+                if (childValue > childAlpha && childValue < childBeta) {
+                    childValue = visit(col, childDepth, childAlpha,
+                            childBeta);
+                }
+                position.undo(col);
+            } else {
+                position.play(col);
+                childValue = visit(col, childDepth, childAlpha, childBeta);
+                position.undo(col);
+            }
+
+            if (machineToMove && childValue > best) {
+                best = childValue;
+                bestMove = col;
+                childAlpha = Math.max(childAlpha, childValue);
+            } else if (!machineToMove && childValue < best) {
+                best = childValue;
+                bestMove = col;
+                childBeta = Math.min(childBeta, childValue);
+            }
+        }
+
+        if (extend) {
+            extensions--;
+        }
+
+        if (childAlpha >= childBeta) {
+            // The move that cut off is likely good in other lines as well.
+            history[side][bestMove * Position.HEIGHT
+                    + position.getHeight(bestMove)] += depth * depth;
+        }
+
+        int result = base + best;
+
+        if (!control.isStopped() && !overBudget) {
+            int bound = result <= alpha ? TranspositionTable.UPPER
+                    : result >= beta ? TranspositionTable.LOWER
+                    : TranspositionTable.EXACT;
+            table.store(key, depth, result, bound, bestMove);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the current board is worth an extension: the side to move
+     * has at most one move that does not lose at once. Threats of the
+     * opponent higher up in the board do not count, extending for them
+     * searched more nodes without playing better.
+     *
+     * @return True if the board is forcing.
+     */
+    private boolean isForcing() {
+        int side = position.getSideToMove();
+        long own = position.getBoard(side);
+        long other = position.getBoard(1 - side);
+        long playable = position.getPlayable();
+
+        if ((Position.winningCells(own) & playable) != 0) {
+            // The side to move wins at once.
+            return false;
+        }
+
+        long threats = Position.winningCells(other) & ~(own | other);
+        if ((threats & playable) != 0) {
+            // Blocking is the only move, or there are two threats to block.
+            return true;
+        }
+
+        // Moves below a threat lose at once.
+        long safe = playable & ~(threats >>> 1);
+        return (safe & (safe - 1)) == 0;
+    }
+
+    /**
+     * Counts a node and checks the budget.
+     */
+    private void countNode() {
+        control.countNode();
+
+        // The first depth is always finished, so there is a move.
+        if (finishedDepth > 0 && control.isOverBudget()) {
+            overBudget = true;
+        }
+    }
+
+    /**
+     * Evaluates the boards after each of the moves into {@code leafValues}
+     * without playing them.
+     *
+     * @param side Side to move.
+     * @param moves Array indices of the columns.
+     * @param count Number of moves.
+     */
+    private void evaluateLeaves(int side, int[] moves, int count) {
+        long own = position.getBoard(side);
+        long other = position.getBoard(1 - side);
+        long[] moved = side == machineSide ? leafMachine : leafHuman;
+        long[] waiting = side == machineSide ? leafHuman : leafMachine;
+
+        for (int i = 0; i < count; i++) {
+            int col = moves[i];
+            moved[i] = own | 1L << (col * Position.HEIGHT
+                    + position.getHeight(col));
+            waiting[i] = other;
+        }
+        Evaluator.evaluate(leafMachine, leafHuman, count, weights,
+                leafValues);
+    }
+}
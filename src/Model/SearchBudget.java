@@ -0,0 +1,81 @@
+package Model;
+
+/**
+ * What a {@link MoveStrategy} may spend on one machine move: the level of
+ * the machine, the control with the node, time and memory budgets, and the
+ * shared resources of the game.
+ */
+public final class SearchBudget {
+
+    private final int level;
+    private final SearchControl control;
+    private final EvaluationWeights weights;
+    private final TranspositionTable table;
+    private final int threads;
+
+    /**
+     * Creates a budget.
+     *
+     * @param level Level of the machine.
+     * @param control Control of the search.
+     * @param weights Weights of the evaluation.
+     * @param table Transposition table of the game.
+     * @param threads Number of threads the search may use.
+     */
+    SearchBudget(int level, SearchControl control, EvaluationWeights weights,
+                 TranspositionTable table, int threads) {
+        this.level = level;
+        this.control = control;
+        this.weights = weights;
+        this.table = table;
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the level of the machine. Its meaning depends on the strategy, a
+     * depth for the minimax search.
+     *
+     * @return Level, at least 1.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the control that holds the node, time and memory budgets, counts
+     * the nodes, receives the result and tells if the search was stopped.
+     *
+     * @return Control of the search.
+     */
+    public SearchControl getControl() {
+        return control;
+    }
+
+    /**
+     * Gets the weights the game evaluates boards with.
+     *
+     * @return Weights of the evaluation.
+     */
+    public EvaluationWeights getWeights() {
+        return weights;
+    }
+
+    /**
+     * Gets the transposition table of the game, which may be shared with
+     * other games and threads.
+     *
+     * @return The table.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Gets the number of threads the search may use.
+     *
+     * @return Number of threads, at least 1.
+     */
+    public int getThreads() {
+        return threads;
+    }
+}
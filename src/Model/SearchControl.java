@@ -0,0 +1,316 @@
+package Model;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Controls a running machine search and collects its result. A search can be
+ * stopped from another thread, it then returns without a move.
+ *
+ * Budgets for nodes, time and heap memory can be set before the search
+ * starts. When the node or time budget runs out, the search ends with the
+ * move of the last depth it finished. When the memory budget is reached,
+ * lines are not searched deeper. The search always finishes at least the
+ * first depth.
+ */
+public class SearchControl {
+
+    private static final long TIME_CHECK_MASK = 1023;
+
+    private volatile boolean stopped = false;
+    private long nodes = 0;
+    private volatile long nodeSnapshot = 0;
+    private long tableHits = 0;
+    private final LongAdder copies = new LongAdder();
+    private int bestColumn = 0;
+    private int score = 0;
+    private int depth = 0;
+    private long nodeBudget = Long.MAX_VALUE;
+    private boolean timed = false;
+    private long deadline;
+    private boolean timeUp = false;
+    private long memoryBudget = Long.MAX_VALUE;
+    private long usedBytes = 0;
+    private long peakBytes = 0;
+    private SearchTracer tracer = null;
+    private Consumer<SearchControl> resultListener = null;
+
+    /**
+     * Requests the search to stop as soon as possible.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Checks if the search was requested to stop.
+     *
+     * @return True if {@link #stop()} was called.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Sets the maximum number of boards the search may generate.
+     *
+     * @param nodeBudget Node budget, at least 1.
+     * @throws IllegalArgumentException The budget is not positive.
+     */
+    public void setNodeBudget(long nodeBudget) {
+        if (nodeBudget < 1) {
+            throw new IllegalArgumentException("Invalid node budget: "
+                    + nodeBudget);
+        }
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Sets the time the search may take, counted from now.
+     *
+     * @param millis Time budget in milliseconds, at least 1.
+     * @throws IllegalArgumentException The budget is not positive.
+     */
+    public void setTimeBudget(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Invalid time budget: "
+                    + millis);
+        }
+        deadline = System.nanoTime() + millis * 1_000_000;
+        timed = true;
+        timeUp = false;
+    }
+
+    /**
+     * Sets the maximum number of heap bytes the search may allocate. The
+     * shared transposition table is not counted.
+     *
+     * @param memoryBudget Memory budget in bytes, at least 1.
+     * @throws IllegalArgumentException The budget is not positive.
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("Invalid memory budget: "
+                    + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Sets a tracer that receives every board of the searches started with
+     * this control. Tracing slows the search down considerably.
+     *
+     * @param tracer The tracer or null to not trace.
+     */
+    public void setTracer(SearchTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Sets a listener that is called whenever the search stores a new
+     * result: after every finished depth of a strategy whose level is a
+     * depth, now and then for the others. It is called on the searching
+     * thread with this control, which holds the new result.
+     *
+     * @param resultListener The listener or null.
+     */
+    public void setResultListener(Consumer<SearchControl> resultListener) {
+        this.resultListener = resultListener;
+    }
+
+    /**
+     * Gets the tracer of the searches.
+     *
+     * @return The tracer or null if searches are not traced.
+     */
+    SearchTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Gets the number of boards the search has generated so far.
+     *
+     * @return Number of searched nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the number of boards the search had generated when it last
+     * published its count. It can be read from any thread while the search
+     * runs and lags behind by at most about a thousand boards.
+     *
+     * @return Published number of searched nodes.
+     */
+    public long getNodeSnapshot() {
+        return nodeSnapshot;
+    }
+
+    /**
+     * Gets the number of boards whose value was found in the transposition
+     * table, so that their game tree was not generated.
+     *
+     * @return Number of table hits.
+     */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * Gets the number of position copies made for the search so far.
+     *
+     * @return Number of copies.
+     */
+    public long getCopies() {
+        return copies.sum();
+    }
+
+    /**
+     * Gets the column the machine has chosen.
+     *
+     * @return Column from 1 to {@link Board#COLS}, 0 if the search did not
+     *         finish.
+     */
+    public int getBestColumn() {
+        return bestColumn;
+    }
+
+    /**
+     * Gets the board value of the chosen move.
+     *
+     * @return Value of the best move from the machine's point of view.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the depth of the chosen move, which is smaller than the level if
+     * the node budget ran out.
+     *
+     * @return Number of moves looked ahead, 0 if the search did not finish.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Checks if the search generated as many boards or took as much time as
+     * its budget allows.
+     *
+     * @return True if the node or time budget is used up.
+     */
+    public boolean isOverBudget() {
+        return nodes >= nodeBudget || timeUp;
+    }
+
+    /**
+     * Gets the largest number of heap bytes the search held at once.
+     *
+     * @return Peak memory usage in bytes.
+     */
+    public long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /**
+     * Counts one generated board.
+     */
+    void countNode() {
+        nodes++;
+
+        // Reading the clock and publishing the count are not free, so they
+        // are only done now and then.
+        if ((nodes & TIME_CHECK_MASK) == 0) {
+            nodeSnapshot = nodes;
+            if (timed) {
+                timeUp = System.nanoTime() - deadline >= 0;
+            }
+        }
+    }
+
+    /**
+     * Counts boards that were generated elsewhere, for searches that do not
+     * count them one by one. Strategies outside of this package report
+     * their work with it.
+     *
+     * @param count Number of boards.
+     */
+    public void countNodes(long count) {
+        nodes += count;
+        nodeSnapshot = nodes;
+
+        if (timed) {
+            timeUp = System.nanoTime() - deadline >= 0;
+        }
+    }
+
+    /**
+     * Accounts memory the search needs in any case, even beyond the budget.
+     *
+     * @param bytes Number of bytes.
+     */
+    void reserve(long bytes) {
+        usedBytes += bytes;
+        peakBytes = Math.max(peakBytes, usedBytes);
+    }
+
+    /**
+     * Accounts memory the search is about to allocate. Memory that would
+     * exceed the budget is not accounted and must not be allocated.
+     *
+     * @param bytes Number of bytes.
+     * @return True if the memory fits into the budget.
+     */
+    boolean allocate(long bytes) {
+        if (usedBytes + bytes > memoryBudget) {
+            return false;
+        }
+        reserve(bytes);
+        return true;
+    }
+
+    /**
+     * Accounts memory the search does not hold any more.
+     *
+     * @param bytes Number of bytes.
+     */
+    void release(long bytes) {
+        usedBytes -= bytes;
+    }
+
+    /**
+     * Counts one copy of a position made for the search. Strategies outside
+     * of this package report their copies with it, from any thread.
+     */
+    public void countCopy() {
+        copies.increment();
+    }
+
+    /**
+     * Counts one board whose value was found in the transposition table.
+     */
+    void countTableHit() {
+        tableHits++;
+    }
+
+    /**
+     * Stores the result of a finished search. Strategies call it whenever
+     * they have a better move, so that it is known if they are stopped.
+     *
+     * @param column Chosen column from 1 to {@link Board#COLS}.
+     * @param score Board value of the chosen move.
+     * @param depth Number of moves looked ahead.
+     */
+    public void setResult(int column, int score, int depth) {
+        bestColumn = column;
+        this.score = score;
+        this.depth = depth;
+        nodeSnapshot = nodes;
+
+        if (resultListener != null) {
+            resultListener.accept(this);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package Model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one iteration of the machine search, which walks
+ * the game tree to one depth and evaluates its boards.
+ */
+@Name("connectfour.SearchIteration")
+@Label("Search Iteration")
+@Category({"Connect Four", "Search"})
+@Description("Search and evaluation of the game tree to one depth")
+final class SearchIterationEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    @Description("Boards generated and evaluated in this iteration")
+    long nodes;
+
+    @Label("Table Hits")
+    long tableHits;
+
+    @Label("Best Column")
+    int column;
+
+    @Label("Finished")
+    @Description("False if the search was stopped or ran out of budget")
+    boolean finished;
+}
@@ -0,0 +1,192 @@
+package Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams every board a machine search visits to a file, so that the
+ * choice of a move can be reasoned about after the search. The tree is not
+ * kept in memory; records are buffered and written as the search goes.
+ *
+ * A trace starts with the magic number {@code C4TR} and a version byte.
+ * Every board follows as one record once its value is known, that is
+ * children before their parent. Nodes are numbered in the order the search
+ * enters them, so the subtree of a node are the records before it with a
+ * larger number. Each record consists of varints, signed ones zigzag
+ * encoded:
+ *
+ * <ol>
+ * <li>node number minus the number of the previous record, signed,</li>
+ * <li>node number minus the parent's number, 0 for an iteration root,</li>
+ * <li>column from 1 to {@link Board#COLS} plus the bound times 8, column 0
+ * for a root,</li>
+ * <li>remaining depth,</li>
+ * <li>number of moves from the iteration root,</li>
+ * <li>static value, signed,</li>
+ * <li>backed-up value, signed.</li>
+ * </ol>
+ *
+ * The bound is {@link #EXACT}, {@link #LOWER} or {@link #UPPER} and tells
+ * whether the value fell out of the search window. Values are from the
+ * machine's point of view.
+ */
+public final class SearchTracer implements Closeable {
+
+    /**
+     * First four bytes of a trace.
+     */
+    public static final int MAGIC = 0x43345452;
+
+    /**
+     * Format version of a trace.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Bound of a value within the search window.
+     */
+    public static final int EXACT = 0;
+
+    /**
+     * Bound of a value the search cut off above, the real one is larger.
+     */
+    public static final int LOWER = 1;
+
+    /**
+     * Bound of a value the search cut off below, the real one is smaller.
+     */
+    public static final int UPPER = 2;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Largest record: two varints of an int node number, three bytes, two
+     * varints of an int value.
+     */
+    private static final int MAX_RECORD_BYTES = 4 * 5 + 3;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private int nextNode = 0;
+    private int lastNode = 0;
+
+    /**
+     * Creates a trace file, replacing an existing one.
+     *
+     * @param file Path of the trace.
+     * @throws IOException Creating the file failed.
+     */
+    public SearchTracer(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).put((byte) VERSION);
+    }
+
+    /**
+     * Gets the number of nodes traced so far.
+     *
+     * @return Number of entered nodes.
+     */
+    public int getNodes() {
+        return nextNode;
+    }
+
+    /**
+     * Numbers a node the search enters.
+     *
+     * @return Number of the node.
+     */
+    int enter() {
+        return nextNode++;
+    }
+
+    /**
+     * Writes the record of a node whose value is known.
+     *
+     * @param node Number of the node.
+     * @param parent Number of the parent or -1 for an iteration root.
+     * @param column Column from 1 to {@link Board#COLS}, 0 for a root.
+     * @param bound Bound of the value.
+     * @param depth Remaining depth.
+     * @param ply Number of moves from the iteration root.
+     * @param staticValue Static value of the board.
+     * @param value Backed-up value of the board.
+     * @throws UncheckedIOException Writing failed.
+     */
+    void record(int node, int parent, int column, int bound, int depth,
+                int ply, int staticValue, int value) {
+        if (buffer.remaining() < MAX_RECORD_BYTES) {
+            flush();
+        }
+        putVarint(zigzag(node - lastNode));
+        putVarint(parent < 0 ? 0 : node - parent);
+        buffer.put((byte) (column | bound << 3));
+        buffer.put((byte) depth);
+        buffer.put((byte) ply);
+        putVarint(zigzag(staticValue));
+        putVarint(zigzag(value));
+        lastNode = node;
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     *
+     * @throws UncheckedIOException Writing failed.
+     */
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Appends an unsigned varint, seven bits per byte, low bits first.
+     *
+     * @param value Value, treated as unsigned.
+     */
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Maps signed values to unsigned ones so that small magnitudes give
+     * short varints.
+     *
+     * @param value Signed value.
+     * @return Zigzag encoded value.
+     */
+    private static int zigzag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    /**
+     * Writes the remaining records and closes the file.
+     *
+     * @throws IOException Writing or closing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package Model;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Table of already searched positions, stored outside of the Java heap so
+ * that it can be gigabytes large and shared by many games and threads.
+ *
+ * Every entry takes 16 bytes: the data word (value, depth, bound and best
+ * move) and the position key xor the data word. Both words are written and
+ * read with single atomic accesses but without locks. If two threads write
+ * the same entry at once, the key check fails for the torn entry and it is
+ * treated as missing. Entries come in pairs, see
+ * {@link #store(long, int, int, int, int)}.
+ *
+ * A table can be saved to a snapshot file and loaded again after a restart.
+ * The file starts with a header of magic number, format version, search
+ * key and entry count, followed by the entries as pairs of key and data
+ * word in little endian order. A snapshot is only loaded with the same
+ * evaluation weights and extension limit it was saved with.
+ */
+public class TranspositionTable {
+
+    /**
+     * Bound type of a value that is exact.
+     */
+    public static final int EXACT = 0;
+
+    /**
+     * Bound type of a value that is a lower bound of the real value.
+     */
+    public static final int LOWER = 1;
+
+    /**
+     * Bound type of a value that is an upper bound of the real value.
+     */
+    public static final int UPPER = 2;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int SEGMENT_BITS = 26;
+    private static final int SNAPSHOT_MAGIC = 0x43345454;
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final long MAP_CHUNK_BYTES = 1L << 30;
+    private static final VarHandle LONGS = MethodHandles
+            .byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] segments;
+    private final long mask;
+    private final int segmentMask;
+
+    /**
+     * Creates a table that uses at most the given number of bytes. The
+     * number of entries is rounded down to a power of two.
+     *
+     * @param bytes Maximum size of the table in bytes.
+     * @throws IllegalArgumentException Less than two entries fit into the
+     *         size.
+     */
+    public TranspositionTable(long bytes) {
+        if (bytes < 2 * ENTRY_BYTES) {
+            throw new IllegalArgumentException("Table too small: " + bytes);
+        }
+
+        long entries = Long.highestOneBit(bytes / ENTRY_BYTES);
+        int segmentEntries = (int) Math.min(entries, 1L << SEGMENT_BITS);
+
+        mask = entries / 2 - 1;
+        segmentMask = segmentEntries - 1;
+        segments = new ByteBuffer[(int) (entries / segmentEntries)];
+
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentEntries
+                    * ENTRY_BYTES).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Looks up a position. Of two entries for the position the deeper one is
+     * returned.
+     *
+     * @param key Key of the position.
+     * @return The data word of the entry or 0 if the position is not stored.
+     *         Use the static getters to decode it.
+     */
+    public long probe(long key) {
+        long first = (key & mask) << 1;
+        long deep = read(first, key);
+        return deep != 0 ? deep : read(first + 1, key);
+    }
+
+    /**
+     * Looks up a position searched to the given depth. If the position is
+     * only stored with another depth, that entry is returned, so that its
+     * best move can still be tried first.
+     *
+     * @param key Key of the position.
+     * @param depth Depth that is searched below the position.
+     * @return The data word of the entry or 0 if the position is not stored.
+     */
+    public long probe(long key, int depth) {
+        long first = (key & mask) << 1;
+        long deep = read(first, key);
+
+        if (deep != 0 && getDepth(deep) == depth) {
+            return deep;
+        }
+        long recent = read(first + 1, key);
+        return recent != 0 ? recent : deep;
+    }
+
+    /**
+     * Stores a searched position. Every place has two entries: the first
+     * keeps the deepest search, the second the most recent one. Deep
+     * entries, for example from a snapshot, therefore survive the shallow
+     * iterations of iterative deepening that run before they are needed.
+     *
+     * @param key Key of the position.
+     * @param depth Depth that was searched below the position.
+     * @param value Value of the position.
+     * @param bound Bound type of the value.
+     * @param move Array index of the best column or -1 if there is none.
+     */
+    public void store(long key, int depth, int value, int bound, int move) {
+        long first = (key & mask) << 1;
+        long deep = readData(first);
+
+        // Depth is stored plus one, so the data word of an entry is never 0.
+        long data = (value & 0xFFFFFFFFL) | ((long) (depth + 1) << 32)
+                | ((long) bound << 40) | ((long) (move + 1) << 42);
+
+        if (deep == 0 || getDepth(deep) <= depth) {
+            write(first, key, data);
+        } else {
+            write(first + 1, key, data);
+        }
+    }
+
+    /**
+     * Reads the data word of an entry if it belongs to a position.
+     *
+     * @param entry Index of the entry.
+     * @param key Key of the position.
+     * @return The data word or 0 if the entry holds another position.
+     */
+    private long read(long entry, long key) {
+        ByteBuffer segment = segments[(int) (entry >>> SEGMENT_BITS)];
+        int offset = (int) (entry & segmentMask) * ENTRY_BYTES;
+        long data = (long) LONGS.getOpaque(segment, offset + 8);
+        long check = (long) LONGS.getOpaque(segment, offset);
+
+        if (data != 0 && (check ^ data) == key) {
+            return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the data word of an entry, whatever position it belongs to.
+     *
+     * @param entry Index of the entry.
+     * @return The data word, 0 if the entry is empty.
+     */
+    private long readData(long entry) {
+        ByteBuffer segment = segments[(int) (entry >>> SEGMENT_BITS)];
+        int offset = (int) (entry & segmentMask) * ENTRY_BYTES;
+        return (long) LONGS.getOpaque(segment, offset + 8);
+    }
+
+    /**
+     * Writes an entry.
+     *
+     * @param entry Index of the entry.
+     * @param key Key of the position.
+     * @param data Data word, not 0.
+     */
+    private void write(long entry, long key, long data) {
+        ByteBuffer segment = segments[(int) (entry >>> SEGMENT_BITS)];
+        int offset = (int) (entry & segmentMask) * ENTRY_BYTES;
+
+        LONGS.setOpaque(segment, offset, key ^ data);
+        LONGS.setOpaque(segment, offset + 8, data);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int offset = 0; offset < segment.capacity(); offset += 8) {
+                LONGS.setOpaque(segment, offset, 0L);
+            }
+        }
+    }
+
+    /**
+     * Saves the entries searched at least to the given depth into a
+     * snapshot file. The file is written next to the target first and then
+     * moved over it, so readers never see a half written snapshot. Searches
+     * may continue meanwhile.
+     *
+     * @param file Snapshot file.
+     * @param weights Weights the entries were searched with.
+     * @param minDepth Smallest depth of saved entries.
+     * @return Number of saved entries.
+     * @throws IOException Writing the file failed.
+     */
+    public long save(Path file, EvaluationWeights weights, int minDepth)
+            throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+
+            for (ByteBuffer segment : segments) {
+                for (int offset = 0; offset < segment.capacity();
+                        offset += ENTRY_BYTES) {
+                    long data = (long) LONGS.getOpaque(segment, offset + 8);
+                    long check = (long) LONGS.getOpaque(segment, offset);
+
+                    if (data == 0 || getDepth(data) < minDepth) {
+                        continue;
+                    }
+                    if (buffer.remaining() < ENTRY_BYTES) {
+                        writeFully(channel, buffer);
+                    }
+                    buffer.putLong(check ^ data).putLong(data);
+                    count++;
+                }
+            }
+            writeFully(channel, buffer);
+
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION)
+                    .putLong(Search.getTableKey(weights)).putLong(count);
+            channel.position(0);
+            writeFully(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Loads the entries of a snapshot file into the table. The file is
+     * mapped into memory instead of being read through a buffer. Entries
+     * only fill empty places, so positions searched meanwhile are kept.
+     *
+     * @param file Snapshot file.
+     * @param weights Weights the machine evaluates with.
+     * @return Number of loaded entries, 0 if the snapshot was made with
+     *         other weights, another extension limit or another format
+     *         version.
+     * @throws IOException Reading the file failed or it is not a snapshot.
+     */
+    public long load(Path file, EvaluationWeights weights)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not a table snapshot: " + file);
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a table snapshot: " + file);
+            }
+            if (header.getInt() != SNAPSHOT_VERSION
+                    || header.getLong() != Search.getTableKey(weights)) {
+                return 0;
+            }
+
+            long count = header.getLong();
+            if (count < 0 || HEADER_BYTES + count * ENTRY_BYTES > size) {
+                throw new IOException("Truncated table snapshot: " + file);
+            }
+
+            long loaded = 0;
+            long position = HEADER_BYTES;
+            long end = HEADER_BYTES + count * ENTRY_BYTES;
+
+            while (position < end) {
+                long length = Math.min(MAP_CHUNK_BYTES, end - position);
+                MappedByteBuffer chunk = channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, length);
+                chunk.order(ByteOrder.LITTLE_ENDIAN);
+
+                while (chunk.hasRemaining()) {
+                    long key = chunk.getLong();
+                    long data = chunk.getLong();
+
+                    long first = (key & mask) << 1;
+
+                    // Only fill empty entries, searched ones are newer.
+                    if (readData(first) == 0) {
+                        write(first, key, data);
+                        loaded++;
+                    } else if (readData(first + 1) == 0) {
+                        write(first + 1, key, data);
+                        loaded++;
+                    }
+                }
+                position += length;
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Writes the content of a buffer completely and clears it.
+     *
+     * @param channel Channel to write to.
+     * @param buffer Buffer in write mode.
+     * @throws IOException Writing failed.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gets the number of entries the table can hold.
+     *
+     * @return Capacity in entries.
+     */
+    public long getCapacity() {
+        return (mask + 1) * 2;
+    }
+
+    /**
+     * Gets the value of an entry.
+     *
+     * @param entry Data word returned by {@link #probe(long)}.
+     * @return The stored value.
+     */
+    public static int getValue(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Gets the searched depth of an entry.
+     *
+     * @param entry Data word returned by {@link #probe(long)}.
+     * @return The depth below the position.
+     */
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> 32) & 0xFF) - 1;
+    }
+
+    /**
+     * Gets the bound type of an entry.
+     *
+     * @param entry Data word returned by {@link #probe(long)}.
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     */
+    public static int getBound(long entry) {
+        return (int) ((entry >>> 40) & 0x3);
+    }
+
+    /**
+     * Gets the best move of an entry.
+     *
+     * @param entry Data word returned by {@link #probe(long)}.
+     * @return Array index of the best column or -1 if there is none.
+     */
+    public static int getMove(long entry) {
+        return (int) ((entry >>> 42) & 0xF) - 1;
+    }
+}
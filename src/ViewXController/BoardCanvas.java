@@ -0,0 +1,281 @@
+package ViewXController;
+
+import Model.Board;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Paints the whole game grid in one component. The blue grid with its empty
+ * slots is rendered once into an image in device resolution, only the discs
+ * of occupied slots are painted on top of it. Changing a slot repaints just
+ * that slot.
+ */
+public class BoardCanvas extends JComponent {
+
+    private static final Color BACKGROUND_COLOR = Color.BLUE;
+    private static final Color EMPTY_COLOR = Color.WHITE;
+    private static final Color WITNESS_COLOR = Color.BLACK;
+    private static final Color HINT_COLOR = new Color(255, 255, 0, 96);
+    private static final double DISC_FACTOR = 0.95;
+    private static final int RESIZE_DELAY = 100;
+
+    private final Color[][] discs = new Color[Board.ROWS][Board.COLS];
+    private final boolean[][] witness = new boolean[Board.ROWS][Board.COLS];
+    private final Timer resizeTimer;
+    private BufferedImage background;
+    private int hintColumn = 0;
+    private boolean backgroundStale = true;
+
+    /**
+     * Initializes an empty board canvas.
+     *
+     * @param parent Parent view that receives the clicked columns.
+     */
+    public BoardCanvas(View parent) {
+        setOpaque(true);
+
+        // Re-render the background only after resizing paused for a moment.
+        // Until then the old image is stretched.
+        resizeTimer = new Timer(RESIZE_DELAY, e -> {
+            backgroundStale = true;
+            repaint();
+        });
+        resizeTimer.setRepeats(false);
+
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                resizeTimer.restart();
+            }
+        });
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (getWidth() > 0 && e.getX() >= 0 && e.getX() < getWidth()) {
+                    parent.columnClickedEvent(
+                            e.getX() * Board.COLS / getWidth() + 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the color of the disc in a slot.
+     *
+     * @param row Row of the slot from 1 to {@link Board#ROWS}.
+     * @param col Column of the slot from 1 to {@link Board#COLS}.
+     * @param color Color of the disc, {@code null} for an empty slot.
+     */
+    public void setDisc(int row, int col, Color color) {
+        discs[row - 1][col - 1] = color;
+        repaint(getSlotBounds(row - 1, col - 1));
+    }
+
+    /**
+     * Marks or un-marks a slot as part of the witness.
+     *
+     * @param row Row of the slot from 1 to {@link Board#ROWS}.
+     * @param col Column of the slot from 1 to {@link Board#COLS}.
+     * @param isWitness True if the slot should be displayed as witness.
+     */
+    public void setWitness(int row, int col, boolean isWitness) {
+        witness[row - 1][col - 1] = isWitness;
+        repaint(getSlotBounds(row - 1, col - 1));
+    }
+
+    /**
+     * Highlights the column suggested to the human.
+     *
+     * @param col Column from 1 to {@link Board#COLS}, 0 to remove the
+     *            highlight.
+     */
+    public void setHint(int col) {
+        if (hintColumn > 0) {
+            repaint(getColumnBounds(hintColumn - 1));
+        }
+        hintColumn = col;
+
+        if (hintColumn > 0) {
+            repaint(getColumnBounds(hintColumn - 1));
+        }
+    }
+
+    /**
+     * Removes all discs, witness marks and the hint.
+     */
+    public void clear() {
+        for (int row = 0; row < Board.ROWS; row++) {
+            for (int col = 0; col < Board.COLS; col++) {
+                discs[row][col] = null;
+                witness[row][col] = false;
+            }
+        }
+        hintColumn = 0;
+        repaint();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        Graphics2D graphics2D = (Graphics2D) g;
+
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        if (background == null || backgroundStale) {
+            background = renderBackground(graphics2D, width, height);
+            backgroundStale = false;
+        }
+        graphics2D.drawImage(background, 0, 0, width, height, null);
+
+        Rectangle clip = g.getClipBounds();
+        graphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+
+        for (int row = 0; row < Board.ROWS; row++) {
+            for (int col = 0; col < Board.COLS; col++) {
+                if ((discs[row][col] != null || witness[row][col])
+                        && (clip == null
+                        || clip.intersects(getSlotBounds(row, col)))) {
+                    paintSlot(graphics2D, row, col);
+                }
+            }
+        }
+
+        if (hintColumn > 0) {
+            graphics2D.setColor(HINT_COLOR);
+            graphics2D.fill(getColumnBounds(hintColumn - 1));
+        }
+    }
+
+    /**
+     * Paints the disc and the witness mark of an occupied slot.
+     *
+     * @param graphics2D Graphics to paint with.
+     * @param row Array index of the row.
+     * @param col Array index of the column.
+     */
+    private void paintSlot(Graphics2D graphics2D, int row, int col) {
+        Ellipse2D disc = getDisc(getWidth(), getHeight(), row, col, 1);
+
+        if (discs[row][col] != null) {
+            graphics2D.setColor(discs[row][col]);
+            graphics2D.fill(disc);
+        }
+
+        if (witness[row][col]) {
+            graphics2D.setColor(WITNESS_COLOR);
+            graphics2D.fill(getDisc(getWidth(), getHeight(), row, col, 0.5));
+        }
+    }
+
+    /**
+     * Renders the grid with all slots empty into an image that has the
+     * resolution of the device, so it stays sharp on HiDPI screens.
+     *
+     * @param target Graphics the image will be drawn on.
+     * @param width Width of the component.
+     * @param height Height of the component.
+     * @return The rendered image.
+     */
+    private BufferedImage renderBackground(Graphics2D target, int width,
+                                           int height) {
+        AffineTransform deviceTransform = target.getTransform();
+        double scaleX = Math.max(1, deviceTransform.getScaleX());
+        double scaleY = Math.max(1, deviceTransform.getScaleY());
+        int imageWidth = (int) Math.ceil(width * scaleX);
+        int imageHeight = (int) Math.ceil(height * scaleY);
+
+        GraphicsConfiguration config = target.getDeviceConfiguration();
+        BufferedImage image = config.createCompatibleImage(imageWidth,
+                imageHeight, Transparency.OPAQUE);
+        Graphics2D graphics2D = image.createGraphics();
+
+        graphics2D.scale(scaleX, scaleY);
+        graphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics2D.setColor(BACKGROUND_COLOR);
+        graphics2D.fillRect(0, 0, width, height);
+        graphics2D.setColor(EMPTY_COLOR);
+
+        for (int row = 0; row < Board.ROWS; row++) {
+            for (int col = 0; col < Board.COLS; col++) {
+                graphics2D.fill(getDisc(width, height, row, col, 1));
+            }
+        }
+        graphics2D.dispose();
+        return image;
+    }
+
+    /**
+     * Calculates the circle of a slot. Circles do not cut each other, the
+     * lowest row is painted at the bottom.
+     *
+     * @param width Width of the component.
+     * @param height Height of the component.
+     * @param row Array index of the row.
+     * @param col Array index of the column.
+     * @param factor Size of the circle relative to a disc.
+     * @return The circle.
+     */
+    private static Ellipse2D getDisc(int width, int height, int row, int col,
+                                     double factor) {
+        double slotWidth = (double) width / Board.COLS;
+        double slotHeight = (double) height / Board.ROWS;
+        double diameter = Math.min(slotWidth, slotHeight) * DISC_FACTOR
+                * factor;
+        double centerX = (col + 0.5) * slotWidth;
+        double centerY = (Board.ROWS - row - 0.5) * slotHeight;
+
+        return new Ellipse2D.Double(centerX - diameter / 2,
+                centerY - diameter / 2, diameter, diameter);
+    }
+
+    /**
+     * Calculates the area of a column in component coordinates.
+     *
+     * @param col Array index of the column.
+     * @return Bounds of the column, rounded outwards.
+     */
+    private Rectangle getColumnBounds(int col) {
+        Rectangle top = getSlotBounds(Board.ROWS - 1, col);
+        return top.union(getSlotBounds(0, col));
+    }
+
+    /**
+     * Calculates the area of a slot in component coordinates.
+     *
+     * @param row Array index of the row.
+     * @param col Array index of the column.
+     * @return Bounds of the slot, rounded outwards.
+     */
+    private Rectangle getSlotBounds(int row, int col) {
+        int left = col * getWidth() / Board.COLS;
+        int right = ((col + 1) * getWidth() + Board.COLS - 1) / Board.COLS;
+        int top = (Board.ROWS - row - 1) * getHeight() / Board.ROWS;
+        int bottom = ((Board.ROWS - row) * getHeight() + Board.ROWS - 1)
+                / Board.ROWS;
+
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+}
@@ -2,38 +2,51 @@ package ViewXController;
 import Model.Board;
 import Model.ConnectFour;
 import Model.Coordinates2D;
+import Model.MoveLog;
+import Model.MoveStrategies;
+import Model.MoveStrategy;
 import Model.Player;
+import Model.SearchControl;
+import Model.TranspositionTable;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import java.awt.BorderLayout;
-import java.awt.Color;
-import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
-import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.event.ComponentAdapter;
-import java.awt.event.ComponentEvent;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
- * Represents main view of the game.
+ * Represents main view of the game. All fields are only accessed on the
+ * event dispatch thread, the machine searches on a copy of the game.
  */
 final class View extends JFrame {
 
-    private static JPanel gamePanel;
+    private static BoardCanvas gamePanel;
     private static JButton newGameButton;
     private static JButton switchButton;
+    private static JButton hintButton;
+    private static JButton undoButton;
+    private static JButton redoButton;
     private static JButton quitButton;
     private static JComboBox<Integer> levelSelection;
+    private static JComboBox<String> strategySelection;
+    private static JLabel statusLabel;
     private static Board gameModel;
     private static boolean machinePlaying = false;
-    private static final int[] LEVELS = {1, 2, 3, 4, 5};
+    private static final int[] LEVELS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11,
+        12, 13, 14, 15, 16, 17, 18, 19, 20};
+    private static final long TABLE_BYTES = 64L << 20;
     private static final int DEFAULT_HEIGHT = 650;
     private static final int DEFAULT_WIDTH = 700;
     private static final String MSG_ILLEGAL_MOVE = "Illegal Move!";
@@ -44,7 +57,14 @@ final class View extends JFrame {
     private static final String MSG_MACHINE_IS_PLAYING
             = "Your enemy has not finished thinking yet...";
     private static final String MSG_NO_WINNER = "No one won...";
-    private static MachineThread machineThread;
+    private static final String MSG_NOTHING_TO_UNDO = "Nothing to undo!";
+    private static final String MSG_NOTHING_TO_REDO = "Nothing to redo!";
+    private static final int STATUS_INTERVAL = 250;
+    private static MachineWorker machineWorker;
+    private static HintWorker hintWorker;
+    private static MoveLog moveLog = new MoveLog();
+    private static final TranspositionTable table
+            = new TranspositionTable(TABLE_BYTES);
 
     /**
      * Private constructor
@@ -61,30 +81,40 @@ final class View extends JFrame {
 
         // Initializing controls here.
         JPanel menuPanel = new JPanel();
-        gamePanel = new JPanel();
+        JPanel southPanel = new JPanel(new BorderLayout());
+        gamePanel = new BoardCanvas(this);
+        statusLabel = new JLabel(" ");
 
         newGameButton = new JButton("New");
         switchButton = new JButton("Switch");
+        hintButton = new JButton("Hint");
+        undoButton = new JButton("Undo");
+        redoButton = new JButton("Redo");
         quitButton = new JButton("Quit");
         levelSelection = new JComboBox<>();
         initLevelComboBox();
+        strategySelection = new JComboBox<>();
+        initStrategyComboBox();
         addActionListeners();
 
+        menuPanel.add(strategySelection);
         menuPanel.add(levelSelection);
         menuPanel.add(newGameButton);
         menuPanel.add(switchButton);
+        menuPanel.add(hintButton);
+        menuPanel.add(undoButton);
+        menuPanel.add(redoButton);
         menuPanel.add(quitButton);
-
-        gamePanel.setLayout(new GridLayout(Board.ROWS, Board.COLS));
+        southPanel.add(BorderLayout.CENTER, menuPanel);
+        southPanel.add(BorderLayout.SOUTH, statusLabel);
 
         // Adding components to the main container.
         Container mainContainer = this.getContentPane();
         mainContainer.add(BorderLayout.CENTER, gamePanel);
-        mainContainer.add(BorderLayout.SOUTH, menuPanel);
+        mainContainer.add(BorderLayout.SOUTH, southPanel);
 
         this.setMinimumSize(new Dimension(300, 300));
         this.setSize(DEFAULT_WIDTH, DEFAULT_HEIGHT);
-        initGamePanel();
         this.setVisible(true);
 
     }
@@ -94,45 +124,44 @@ final class View extends JFrame {
      */
     private void addActionListeners() {
         levelSelection.addActionListener(new SelectionListener());
+        strategySelection.addActionListener(new StrategyListener());
         newGameButton.addActionListener(new NewGameListener());
         switchButton.addActionListener(new SwitchListener());
+        hintButton.addActionListener(new HintListener());
+        undoButton.addActionListener(new UndoListener());
+        redoButton.addActionListener(new RedoListener());
         quitButton.addActionListener(new QuitListener());
-        gamePanel.addComponentListener(new ResizeListener());
     }
 
     /**
-     * Adds possible levels to combo box.
+     * Adds the names of all move strategies to combo box.
      */
-    private void initLevelComboBox() {
-        for (int level : LEVELS) {
-            levelSelection.addItem(level);
-            levelSelection.setSelectedItem(LEVELS[3]);
+    private void initStrategyComboBox() {
+        for (MoveStrategy strategy : MoveStrategies.getAll()) {
+            strategySelection.addItem(strategy.getName());
         }
+        strategySelection.setSelectedItem(MoveStrategies.getDefault()
+                .getName());
     }
 
     /**
-     * Adds slots to game panel.
+     * Gets the move strategy chosen in the combo box.
+     *
+     * @return The strategy.
      */
-    private void initGamePanel() {
-        int numberOfSlots = Board.COLS * Board.ROWS;
-        Dimension slotDim = getSlotSize();
-
-        while (numberOfSlots > 0) {
-            gamePanel.add(new Slot(slotDim, this));
-            numberOfSlots--;
-        }
+    private static MoveStrategy selectedStrategy() {
+        return MoveStrategies.get((String) strategySelection
+                .getSelectedItem());
     }
 
     /**
-     * Calculates the relative slot size
-     *
-     * @return ViewXController.Slot size that fits the panel size.
+     * Adds possible levels to combo box.
      */
-    private Dimension getSlotSize() {
-        int relHeight = gamePanel.getSize().height / Board.ROWS;
-        int relWidth = gamePanel.getSize().width / Board.COLS;
-
-        return new Dimension(relWidth, relHeight);
+    private void initLevelComboBox() {
+        for (int level : LEVELS) {
+            levelSelection.addItem(level);
+            levelSelection.setSelectedItem(LEVELS[3]);
+        }
     }
 
     /**
@@ -171,11 +200,13 @@ final class View extends JFrame {
      * @param column Column that human moved into.
      */
     private void performHumanMove(int column) {
+        stopHint();
         Board playerMove = gameModel.move(column);
 
         if (playerMove != null) {
             performMove(column, playerMove);
             gameModel = playerMove;
+            moveLog.record(column);
 
             if (!checkWinner()) {
                 performMachineMove();
@@ -186,65 +217,293 @@ final class View extends JFrame {
     }
 
     /**
-     * Thread class for machine move to use swing worker for time consuming move
+     * Progress of the machine search after a finished depth.
      */
-    class MachineThread extends Thread {
+    private static final class SearchProgress {
+
+        private final int depth;
+        private final int bestColumn;
+
+        /**
+         * Creates a progress report.
+         *
+         * @param depth Depth that was searched completely.
+         * @param bestColumn Best column found at this depth.
+         */
+        SearchProgress(int depth, int bestColumn) {
+            this.depth = depth;
+            this.bestColumn = bestColumn;
+        }
+    }
+
+    /**
+     * Searches the machine move in the background with increasing depth up to
+     * the level and publishes the best column of every finished depth. The
+     * result is applied on the event dispatch thread.
+     */
+    class MachineWorker extends SwingWorker<Board, SearchProgress> {
+
+        private final Board start;
+        private final int level;
+        private final SearchControl control = new SearchControl();
+        private final Timer statusTimer;
+        private final long startTime = System.nanoTime();
+        private SearchProgress progress;
+
+        /**
+         * Creates a worker for the machine move.
+         *
+         * @param start Board before the machine move.
+         * @param level Skill level of the machine.
+         */
+        MachineWorker(Board start, int level) {
+            this.start = start.clone();
+            this.level = level;
+            statusTimer = new Timer(STATUS_INTERVAL, e -> showProgress());
+        }
+
+        @Override
+        protected Board doInBackground() {
+            ConnectFour search = (ConnectFour) start.clone();
+            boolean depthLimited = search.getMoveStrategy().isDepthLimited();
+
+            // The search deepens by itself and reports every depth; a level
+            // that is no depth is shown as a whole.
+            control.setResultListener(c -> publish(new SearchProgress(
+                    depthLimited ? c.getDepth() : level,
+                    c.getBestColumn())));
+            search.setLevel(level);
+            return search.machineMove(control);
+        }
+
+        @Override
+        protected void process(List<SearchProgress> chunks) {
+            progress = chunks.get(chunks.size() - 1);
+            showProgress();
+        }
 
         @Override
-        public void run() {
-            super.run();
-            machinePlaying = true;
-            Board machineMove = gameModel.machineMove();
-
-            if (machineMove != null) {
-                int column = getMachineMoveColumn(gameModel, machineMove);
-                SwingUtilities.invokeLater(()
-                        -> performMove(column, machineMove));
+        protected void done() {
+            statusTimer.stop();
+
+            if (isCancelled() || machineWorker != this) {
+                return;
+            }
+            machineWorker = null;
+            machinePlaying = false;
+
+            Board machineMove;
+            try {
+                machineMove = get();
+            } catch (InterruptedException | ExecutionException ex) {
+                statusLabel.setText("Machine search failed: "
+                        + ex.getMessage());
+                return;
             }
+
+            int column = control.getBestColumn();
+            statusLabel.setText("Machine played column " + column);
             gameModel = machineMove;
+            moveLog.record(column);
+            performMove(column, machineMove);
             checkWinner();
-            machinePlaying = false;
+        }
+
+        /**
+         * Shows depth, best column and search speed in the status bar.
+         */
+        private void showProgress() {
+            long millis = Math.max(1, (System.nanoTime() - startTime)
+                    / 1_000_000);
+            String best = progress == null ? "-"
+                    : progress.depth + "/" + level + ", best column "
+                    + progress.bestColumn;
+
+            statusLabel.setText(String.format("Thinking... depth %s,"
+                    + " %d nodes/s", best, control.getNodeSnapshot() * 1000
+                    / millis));
+        }
+
+        /**
+         * Starts the search and the status updates.
+         */
+        private void start() {
+            statusTimer.start();
+            execute();
+        }
+
+        /**
+         * Stops the search. The result is discarded.
+         */
+        private void stopSearch() {
+            control.stop();
+            cancel(false);
         }
     }
 
     /**
-     * Stops the machine thread if its running
+     * Searches the best column for the human in the background with
+     * increasing depth and highlights the best column of every finished
+     * depth, until the human moves or the highest level is reached.
      */
-    @Deprecated
-    private void killThread() {
-        if (machinePlaying) {
-            machineThread.stop();
-            machinePlaying = false;
+    class HintWorker extends SwingWorker<Void, SearchProgress> {
+
+        private final ConnectFour start;
+        private final SearchControl control = new SearchControl();
+
+        /**
+         * Creates a worker for a hint.
+         *
+         * @param start Board with the human to move.
+         */
+        HintWorker(Board start) {
+            this.start = (ConnectFour) start.clone();
+        }
+
+        @Override
+        protected Void doInBackground() {
+            // The analysis deepens by itself and reports the best column of
+            // every depth.
+            control.setResultListener(c -> publish(new SearchProgress(
+                    c.getDepth(), c.getBestColumn())));
+            start.analyze(LEVELS[LEVELS.length - 1], control);
+            return null;
+        }
+
+        @Override
+        protected void process(List<SearchProgress> chunks) {
+            if (hintWorker != this) {
+                return;
+            }
+            SearchProgress best = chunks.get(chunks.size() - 1);
+            gamePanel.setHint(best.bestColumn);
+            statusLabel.setText("Hint: column " + best.bestColumn
+                    + " (depth " + best.depth + ")");
+        }
+
+        /**
+         * Stops the search and removes the hint.
+         */
+        private void stopSearch() {
+            control.stop();
+            cancel(false);
         }
     }
 
     /**
-     * Performs machine move.
+     * Stops the hint search if it is running and removes the hint.
      */
-    private void performMachineMove() {
-        machineThread = new MachineThread();
-        machineThread.start();
+    private void stopHint() {
+        if (hintWorker != null) {
+            hintWorker.stopSearch();
+            hintWorker = null;
+            gamePanel.setHint(0);
+        }
+    }
+
+    /**
+     * Starts a hint search for the human.
+     */
+    private void performHint() {
+        stopHint();
+        hintWorker = new HintWorker(gameModel);
+        hintWorker.execute();
+    }
+
+    /**
+     * Takes back moves until it is the human's turn again and the last
+     * human move is undone. A running machine search is stopped.
+     */
+    private void performUndo() {
+        stopHint();
+        stopMachine();
+        ConnectFour board = (ConnectFour) gameModel;
+
+        // Keep an opening move of the machine, the human never had a turn
+        // before it.
+        int plies = isMachinePly(board, moveLog.size() - 1) ? 2 : 1;
+        if (moveLog.size() < plies) {
+            showMessage(MSG_NOTHING_TO_UNDO);
+            return;
+        }
+
+        for (int i = 0; i < plies; i++) {
+            board = (ConnectFour) board.takeBack(moveLog.undo());
+        }
+        gameModel = board;
+        redrawBoard();
+    }
+
+    /**
+     * Replays the moves that were taken back until it is the human's turn
+     * again. If the machine's answer was not recorded, it is searched.
+     */
+    private void performRedo() {
+        stopHint();
+        ConnectFour board = (ConnectFour) gameModel;
+
+        do {
+            board = (ConnectFour) board.replay(moveLog.redo());
+        } while (moveLog.canRedo() && !board.isGameOver()
+                && isMachinePly(board, moveLog.size()));
+
+        gameModel = board;
+        redrawBoard();
+
+        if (!checkWinner() && isMachinePly(board, moveLog.size())) {
+            performMachineMove();
+        }
     }
 
     /**
-     * Gets the column in that the machine moved its checker.
+     * Checks if a ply of the game is a move of the machine.
      *
-     * @param oldBoard Model.Board before machine move.
-     * @param machineMove Model.Board after machine move.
-     * @return Column index of machine move.
+     * @param board Board of the game.
+     * @param ply Index of the ply, 0 for the first move.
+     * @return True if the machine makes this ply.
      */
-    private int getMachineMoveColumn(Board oldBoard, Board machineMove) {
-        for (int col = 1; col <= Board.COLS; col++) {
+    private static boolean isMachinePly(Board board, int ply) {
+        return board.getFirstPlayer().isMachine() == (ply % 2 == 0);
+    }
 
-            for (int row = 1; row <= Board.ROWS; row++) {
+    /**
+     * Paints all checkers of the current board again.
+     */
+    private void redrawBoard() {
+        gamePanel.clear();
 
-                if (oldBoard.getSlot(row, col) == null
-                        && machineMove.getSlot(row, col) != null) {
-                    return col;
+        for (int row = 1; row <= Board.ROWS; row++) {
+            for (int col = 1; col <= Board.COLS; col++) {
+                Player player = gameModel.getSlot(row, col);
+
+                if (player != null) {
+                    gamePanel.setDisc(row, col, player.getCheckerColor());
                 }
             }
         }
-        return 0;
+        statusLabel.setText(" ");
+    }
+
+    /**
+     * Stops the machine search if its running
+     */
+    private void stopMachine() {
+        if (machineWorker != null) {
+            machineWorker.stopSearch();
+            machineWorker = null;
+        }
+        machinePlaying = false;
+        statusLabel.setText(" ");
+    }
+
+    /**
+     * Performs machine move.
+     */
+    private void performMachineMove() {
+        machinePlaying = true;
+        machineWorker = new MachineWorker(gameModel,
+                (int) levelSelection.getSelectedItem());
+        machineWorker.start();
     }
 
     /**
@@ -260,31 +519,11 @@ final class View extends JFrame {
             Player player = newBoard.getSlot(i, column);
 
             if (player != null) {
-                int index = getComponentIndex(column, i);
-                Slot currSlot = (Slot) gamePanel.getComponent(index - 1);
-                currSlot.setCircleColor(player.getCheckerColor());
+                gamePanel.setDisc(i, column, player.getCheckerColor());
             }
         }
     }
 
-    /**
-     * Calculates the index of the slot in game panel by using its row and col.
-     *
-     * @param col Column of the slot.
-     * @param row Row of the slot.
-     * @return Component index in the game panel.
-     */
-    private static int getComponentIndex(int col, int row) {
-
-        // Calc slots in all rows before row.
-        int slotsInRowsBefore = (Board.ROWS - row) * Board.COLS;
-
-        // Add slots in current row to get index.
-        int index = slotsInRowsBefore + col;
-
-        return index;
-    }
-
     /**
      * Shows a message box with the given message.
      *
@@ -337,13 +576,9 @@ final class View extends JFrame {
      */
     private void markWitness(Collection<Coordinates2D> witness) {
         for (Coordinates2D slot : witness) {
-            int slotIndex = getComponentIndex(slot.getColumn(),
-                    slot.getRow() + 1);
-
-            Slot currSlot = (Slot) gamePanel.getComponent(slotIndex);
-            currSlot.setWitness(true);
+            gamePanel.setWitness(slot.getRow() + 1, slot.getColumn() + 1,
+                    true);
         }
-        gamePanel.repaint();
     }
 
     /**
@@ -358,6 +593,20 @@ final class View extends JFrame {
         }
     }
 
+    /**
+     * Listener class for strategy selection. The running search keeps its
+     * strategy, the next machine move uses the new one.
+     */
+    class StrategyListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (initiated()) {
+                ((ConnectFour) gameModel).setMoveStrategy(
+                        selectedStrategy());
+            }
+        }
+    }
+
     /**
      * Listener class for new game button.
      */
@@ -368,6 +617,58 @@ final class View extends JFrame {
         }
     }
 
+    /**
+     * Listener class for hint button.
+     */
+    class HintListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (!initiated()) {
+                showMessage(MSG_NOT_INITIATED);
+            } else if (machinePlaying) {
+                showMessage(MSG_MACHINE_IS_PLAYING);
+            } else if (gameModel.isGameOver()) {
+                showMessage(MSG_GAME_OVER);
+            } else {
+                performHint();
+            }
+        }
+    }
+
+    /**
+     * Listener class for undo button.
+     */
+    class UndoListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (!initiated()) {
+                showMessage(MSG_NOT_INITIATED);
+            } else if (!moveLog.canUndo()) {
+                showMessage(MSG_NOTHING_TO_UNDO);
+            } else {
+                performUndo();
+            }
+        }
+    }
+
+    /**
+     * Listener class for redo button.
+     */
+    class RedoListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (!initiated()) {
+                showMessage(MSG_NOT_INITIATED);
+            } else if (machinePlaying) {
+                showMessage(MSG_MACHINE_IS_PLAYING);
+            } else if (!moveLog.canRedo()) {
+                showMessage(MSG_NOTHING_TO_REDO);
+            } else {
+                performRedo();
+            }
+        }
+    }
+
     /**
      * Listener class for switch button.
      */
@@ -384,10 +685,16 @@ final class View extends JFrame {
      * @param switchPlayer Determines if machine should start.
      */
     private void createNewGame(boolean switchPlayer) {
-        killThread();
+        stopHint();
+        stopMachine();
         clearGame();
-        gameModel = new ConnectFour(switchPlayer);
+        ConnectFour game = new ConnectFour(switchPlayer);
+        // All games share one table, its size bounds the engine's memory.
+        game.setTranspositionTable(table);
+        game.setMoveStrategy(selectedStrategy());
+        gameModel = game;
         gameModel.setLevel((int) levelSelection.getSelectedItem());
+        moveLog = new MoveLog();
 
         if (gameModel.getFirstPlayer().isMachine()) {
             performMachineMove();
@@ -395,20 +702,11 @@ final class View extends JFrame {
     }
 
     /**
-     * Sets the color of all slots to white;
+     * Removes all checkers from the game panel.
      */
     private void clearGame() {
         gameModel = null;
-        Component[] slots = gamePanel.getComponents();
-
-        for (Component slot : slots) {
-            Slot currSlot = (Slot) slot;
-            currSlot.setCircleColor(Color.WHITE);
-
-            if (currSlot.isWitness()) {
-                currSlot.setWitness(false);
-            }
-        }
+        gamePanel.clear();
     }
 
     /**
@@ -417,25 +715,12 @@ final class View extends JFrame {
     class QuitListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            killThread();
+            stopHint();
+            stopMachine();
             System.exit(0);
         }
     }
 
-    /**
-     * Listener class for frame resizing.
-     */
-    class ResizeListener extends ComponentAdapter {
-        @Override
-        public void componentResized(ComponentEvent e) {
-            Dimension newSize = getSlotSize();
-
-            for (Component slot : gamePanel.getComponents()) {
-                slot.setPreferredSize(newSize);
-            }
-        }
-    }
-
     /**
      * Main method for view.
      *